@@ -529,7 +529,7 @@ public class CommonCore {
             }
         }
 
-        return new CoreNumber(this, box(rval));
+        return new CoreNumber(this, rval);
     }
 
     /**
@@ -596,6 +596,12 @@ public class CommonCore {
      * returned.<br/>
      * <br/>
      * 
+     * Requests from threads that are not running a <code>map()</code> worker are always 
+     * granted (up to the number of CPUs). Requests of nested maps, i.e., maps called 
+     * from within a mapped function, only receive the CPUs that are currently idle, so 
+     * that nesting does not multiply the number of threads.<br/>
+     * <br/>
+     * 
      * This function is only used internally. Also note that it is essential to call <code>releaseCPUs</code> after the
      * application stopped using them.
      * 
@@ -604,27 +610,28 @@ public class CommonCore {
      * @return The actual number of CPUs available.
      */
     public int requestCPUs(int request) {
-        // When looking at our benchmarks, it seems this does not speed up things, see Issue #12.
-        return Math.min(profileInformation().numCPUs, request);
-
-        /*
-         * synchronized (this.freeCPUs) {
-         * final int free = this.freeCPUs.get();
-         * 
-         * // No free CPUs means to party
-         * if(free == 0) return 0;
-         * 
-         * // More requested than free, return what we have
-         * if(request > free) {
-         * this.freeCPUs.set(0);
-         * return free;
-         * }
-         * 
-         * // In other cases, subtract what we have
-         * this.freeCPUs.set(free - request);
-         * return request;
-         * }
-         */
+        final ProfileInformation profile = profileInformation();
+        final int numCPUs = profile.numCPUs;
+        final int wanted = Math.min(numCPUs, request);
+
+        // Top level maps get what they want
+        if (!executor().isWorker()) {
+            profile.busyCPUs.addAndGet(wanted);
+            return wanted;
+        }
+
+        // Nested ones only what is idle
+        while (true) {
+            final int busy = profile.busyCPUs.get();
+            final int granted = Math.min(wanted, numCPUs - busy);
+
+            if (granted < 2) {
+                profile.inlinedMaps.incrementAndGet();
+                return 0;
+            }
+
+            if (profile.busyCPUs.compareAndSet(busy, busy + granted)) return granted;
+        }
     }
 
     /**
@@ -637,13 +644,8 @@ public class CommonCore {
      * @param toRelease The number of CPUs to release.
      */
     public void releaseCPUs(int toRelease) {
-        // When looking at our benchmarks, it seems this does not speed up things, see Issue #12.
-        /*
-         * synchronized (this.freeCPUs) {
-         * final int free = this.freeCPUs.get();
-         * this.freeCPUs.set(Math.min(this.profileInformation.numCPUs, free + toRelease));
-         * }
-         */
+        if (toRelease <= 0) return;
+        profileInformation().busyCPUs.addAndGet(-toRelease);
     }
 
 }
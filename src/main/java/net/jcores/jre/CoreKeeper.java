@@ -31,12 +31,15 @@ import java.awt.Component;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.InputStream;
+import java.lang.reflect.Array;
 import java.net.URI;
 import java.net.URL;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.swing.JComponent;
@@ -126,7 +129,27 @@ public class CoreKeeper {
      * @return A CoreNumber wrapping the given compounds.
      */
     public static CoreNumber $(int[] object) {
-        return new CoreNumber($, $.box(object));
+        return new CoreNumber($, object);
+    }
+
+    /**
+     * Wraps number of numbers and returns a new CoreNumber.
+     * 
+     * @param object The numbers to wrap.
+     * @return A CoreNumber wrapping the given compounds.
+     */
+    public static CoreNumber $(long[] object) {
+        return new CoreNumber($, object);
+    }
+
+    /**
+     * Wraps number of numbers and returns a new CoreNumber.
+     * 
+     * @param object The numbers to wrap.
+     * @return A CoreNumber wrapping the given compounds.
+     */
+    public static CoreNumber $(double[] object) {
+        return new CoreNumber($, object);
     }
 
     
@@ -299,6 +322,60 @@ public class CoreKeeper {
     }
     
 
+    /**
+     * Wraps the elements of a (possibly parallel) stream. The stream is drained into a 
+     * single array with <code>toArray()</code>, which sized parallel streams fill in place. 
+     * As the element type is not known in advance, the array is copied once into an array of 
+     * the elements' class if they all share the same one; use 
+     * {@link #$(Stream, Class)} to avoid that. In the other direction cores can be streamed 
+     * with <code>StreamSupport.stream(core.spliterator(), true)</code>. Also note that this 
+     * function always returns a parameterized, but vanilla CoreObject, which has to be cast 
+     * using <code>.as()</code> again.
+     * 
+     * @param stream The stream to drain and wrap.
+     * @param <T> Type of the stream.
+     * 
+     * @return A CoreObject of the given type wrapping the stream's elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CoreObject<T> $(Stream<T> stream) {
+        final Object[] elements = stream.toArray();
+
+        // Find the class all elements share, if any
+        Class<?> type = null;
+        for (Object element : elements) {
+            if (element == null) continue;
+            if (type == null) type = element.getClass();
+            if (type != element.getClass()) return new CoreObject<T>($, (T[]) elements);
+        }
+
+        if (type == null || type == Object.class) return new CoreObject<T>($, (T[]) elements);
+        final T[] rval = (T[]) Array.newInstance(type, elements.length);
+        System.arraycopy(elements, 0, rval, 0, elements.length);
+        return new CoreObject<T>($, rval);
+    }
+
+    /**
+     * Wraps the elements of a (possibly parallel) stream of the given type. The stream is 
+     * drained directly into an array of that type, which sized parallel streams fill in place.
+     * 
+     * @param stream The stream to drain and wrap.
+     * @param type The type of the stream's elements.
+     * @param <T> Type of the stream.
+     * 
+     * @return A CoreObject of the given type wrapping the stream's elements.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CoreObject<T> $(Stream<T> stream, final Class<T> type) {
+        return new CoreObject<T>($, stream.toArray(new IntFunction<T[]>() {
+            @Override
+            public T[] apply(int size) {
+                return (T[]) Array.newInstance(type, size);
+            }
+        }));
+    }
+    
+
     /**
      * Wraps a generic Collection objects. Please note that the Collection is
      * transformed into an array, so for performance reasons usage of this
@@ -28,14 +28,37 @@
 package net.jcores.jre.cores;
 
 import java.io.Serializable;
+import java.lang.reflect.Array;
 import java.util.ListIterator;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.jcores.jre.CommonCore;
+import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.managers.ManagerExecution;
+import net.jcores.jre.managers.ManagerExecution.MapEngine;
+import net.jcores.jre.options.Completion;
+import net.jcores.jre.options.Deadline;
+import net.jcores.jre.options.IO;
+import net.jcores.jre.options.KillSwitch;
+import net.jcores.jre.options.MapStatistics;
+import net.jcores.jre.options.MapStatistics.Mode;
+import net.jcores.jre.options.MapType;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.utils.internal.Options;
+import net.jcores.jre.utils.internal.processing.Cancellation;
+import net.jcores.jre.utils.internal.processing.Chunk;
+import net.jcores.jre.utils.internal.processing.FoldTask;
 import net.jcores.jre.utils.internal.processing.Folder;
+import net.jcores.jre.utils.internal.processing.MapTask;
 import net.jcores.jre.utils.internal.processing.Mapper;
 import net.jcores.jre.utils.internal.structures.ProfileInformation;
 
@@ -54,6 +77,9 @@ public abstract class Core implements Serializable {
     /** Used for serialization */
     private static final long serialVersionUID = 2195880634253143587L;
 
+    /** The minimal amount of work (in ns) a thread of the map engine claims at once */
+    private static final long CHUNK_TIME = 10 * 1000;
+
     /** Our 'parent' core. */
     protected transient CommonCore commonCore;
 
@@ -83,29 +109,76 @@ public abstract class Core implements Serializable {
      * Starts a new parallel mapping process.
      * 
      * @param mapper The mapper to use.
-     * @param options Relevant options: <code>OptionMapType</code>.
+     * @param options Relevant options: <code>OptionMapType</code>, {@link KillSwitch}, 
+     * {@link Deadline}, {@link Completion}, {@link IO}, {@link Parallelism} and {@link MapStatistics}.
      */
     @SuppressWarnings("rawtypes")
     protected void map(final Mapper mapper, final Option... options) {
+        final Options options$ = Options.$(options);
+        final Cancellation cancellation = Cancellation.of(options);
+        final MapStatistics statistics = options$.statistics();
+        final IO io = options$.io();
+        final int threads = options$.parallelism().getThreads();
+        if (cancellation == null && statistics == null) {
+            map(mapper, cancellation, io, statistics, threads);
+            return;
+        }
+
+        // With a kill switch or deadline we might return early, the completion tells which
+        // elements have been handled until then.
+        if (cancellation != null) cancellation.start(mapper.core().size());
+        if (statistics != null) statistics.start();
+        try {
+            map(mapper, cancellation, io, statistics, threads);
+        } finally {
+            if (cancellation != null) cancellation.finish();
+            if (statistics != null) statistics.finish();
+        }
+
+        // After a deadline workers might still write into the result, so we hand out a copy
+        // of what was completed in time
+        if (cancellation != null && cancellation.expired()) mapper.detach(cancellation.completed());
+    }
+
+    /**
+     * Performs the actual mapping.
+     * 
+     * @param mapper The mapper to use.
+     * @param cancellation Tells us when to stop, might be <code>null</code>.
+     * @param io The I/O mode, might be <code>null</code>.
+     * @param statistics Collects statistics, might be <code>null</code>.
+     * @param threads The number of threads to use, 0 if we should decide.
+     */
+    @SuppressWarnings("rawtypes")
+    private void map(final Mapper mapper, final Cancellation cancellation, final IO io, 
+                     final MapStatistics statistics, final int threads) {
         final int size = mapper.core().size();
         final CommonCore cc = this.commonCore;
 
         // Quick pass for the probably most common events
         if (size <= 0) return;
         if (size == 1) {
-            mapper.handle(0);
+            final long start = System.nanoTime();
+            handle(mapper, 0, cancellation);
+            if (statistics != null) statistics.chunk(1, System.nanoTime() - start);
+            return;
+        }
+
+        // I/O bound maps are not limited by the number of CPUs (unless we must stay on this thread)
+        if (io != null && threads != 1) {
+            if (statistics != null) statistics.mode(Mode.IO, io.getConcurrency());
+            mapIO(mapper, size, cancellation, io.getConcurrency(), statistics);
             return;
         }
         
-        // Compute the later step size and the number of threads.
+        // Get the profile and find the first element.
         final ProfileInformation profileInfo = cc.profileInformation();
-        final int STEP_SIZE = Math.max(size() / 10, 1);
         final AtomicInteger index = new AtomicInteger();
         
         // Test-convert the first item and measure time. If time and size are above
         // a certain threshold, parallelize, otherwise map sequentially. However, in here we 
         // only test the first one
-        long delta = 0;
+        long delta = -1;
 
         final ListIterator iterator = mapper.core().iterator();
         while(iterator.hasNext()) {
@@ -120,8 +193,9 @@ public abstract class Core implements Serializable {
 
             // Now map the given value
             final long start = System.nanoTime();
-            mapper.handle(i);
+            if (!handle(mapper, i, cancellation)) return;
             delta = System.nanoTime() - start;
+            if (statistics != null) statistics.probe(1);
             
             break;
         }
@@ -130,30 +204,88 @@ public abstract class Core implements Serializable {
         // have a speed gain when the time it takes to spawn threads takes longer than it would 
         // take to finish the loop single-threaded
         final int toGo = size - index.get();
-        final long estTime = delta * toGo;
+        
+        // Instead of relying on that single sample we blend it with what we observed for the same 
+        // function and element type earlier, so a single outlier does not decide the mode of the 
+        // whole core. Also let the executor measure the fork time again once in a while.
+        final ManagerExecution executor = cc.executor();
+        final Class<?>[] functions = mapper.functions();
+        final Class<?> type = mapper.core().adapter.clazz();
+        final long cost = delta < 0 ? 0 : executor.cost(functions, type, delta);
+        final long estTime = cost * toGo;
+        executor.recalibrate();
 
         // Request a CPU for each element we have (in case we have many, we only receive maxCPU, in case we have 
-        // very few, we don't block all CPUs.
-        final int NUM_THREADS = Math.min(toGo, this.commonCore.profileInformation().numCPUs); // cc.requestCPUs(toGo);
+        // very few, we don't block all CPUs. The fork/join pool is bounded by itself, so it needs no CPUs from the 
+        // budget. If we are nested in another map we only receive CPUs that are idle, if any.
+        // If the caller told us how many threads to use we don't ask our heuristics (or the budget) and
+        // use the barrier engine, as the fork/join pool can't use more threads than it has.
+        final boolean forced = threads > 0;
+        final boolean forkjoin = executor.mapEngine() == MapEngine.FORKJOIN && !forced;
+        final int wanted = Math.min(toGo, forced ? threads : profileInfo.numCPUs);
+        final boolean parallel = (forced || !(estTime < 2 * profileInfo.forkTime && toGo > 1)) && wanted >= 2;
+        final int NUM_THREADS;
+        if (parallel && forced) {
+            profileInfo.busyCPUs.addAndGet(wanted);
+            NUM_THREADS = wanted;
+        } else {
+            NUM_THREADS = parallel && !forkjoin ? cc.requestCPUs(wanted) : wanted;
+        }
         
         // We use a safetey factor of 2 for the fork time (FIXME: Should investigate what's the best factor),
         // also, we only spawn something if there is more than one element still to go.
-        if((estTime < 2 * profileInfo.forkTime && toGo > 1) || NUM_THREADS < 2) {
+        if(!parallel || NUM_THREADS < 2) {
             // Instantly release all CPUs when we go singlethreaded
-            // this.commonCore.releaseCPUs(NUM_THREADS);
+            if (parallel && !forkjoin) cc.releaseCPUs(NUM_THREADS);
             
             // In this case, we go single threaded
+            final long start = System.nanoTime();
             while(iterator.hasNext()) {
                 final int i = iterator.nextIndex();
                 iterator.next(); // We need to get the next() that the nextIndex increases. 
-                mapper.handle(i);
+                if (!handle(mapper, i, cancellation)) return;
             }
             
+            // Now we know the real cost per element
+            final long time = System.nanoTime() - start;
+            if (toGo > 0 && delta >= 0) executor.cost(functions, type, time / toGo);
+            if (statistics != null && toGo > 0) statistics.chunk(toGo, time);
             return;
         }
 
 
-        // TODO: Get proper value for step size (same problem, see below)
+        // With the fork/join engine we split the remaining range recursively and let idle
+        // workers steal from busy ones, instead of claiming fixed chunks and meeting at a barrier.
+        if (forkjoin) {
+            final int grain = Math.max(toGo / (NUM_THREADS * 8), 1);
+            final MapTask task = new MapTask(mapper, index.get(), size, grain, cancellation, statistics);
+            if (statistics != null) statistics.mode(Mode.FORKJOIN, cc.executor().getForkJoinPool().getParallelism());
+            
+            // With a deadline we don't wait for elements that are still being processed
+            if (cancellation == null || cancellation.deadline() == null) {
+                cc.executor().getForkJoinPool().invoke(task);
+                return;
+            }
+            
+            cc.executor().getForkJoinPool().execute(task);
+            try {
+                task.get(cancellation.deadline().remaining(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // The deadline passed, return what we have
+                task.cancel(false);
+            } catch (InterruptedException e) {
+                // Keep the interrupt for our caller and return what we have, as after a deadline
+                task.cancel(false);
+                cancellation.abandon();
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw new RuntimeException(e.getCause());
+            }
+            return;
+        }
+
         // TODO: Check size, if small, don't do all this setup in here ...
         // NAH, even for two objects we can have a speed gain if the calls
         // are very slow ...
@@ -162,25 +294,44 @@ public abstract class Core implements Serializable {
         // Okay, in this case the loop was broken and we decided to go parallel. In that case
         // setup the barrier and spawn threads for all our processors so that we process the array.
         final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS + 1);
-        final AtomicInteger baseCount = new AtomicInteger();
-
+        if (statistics != null) statistics.mode(Mode.BARRIER, NUM_THREADS);
+        
+        // The threads claim chunks with guided self-scheduling: each chunk is a share of the 
+        // elements left, so chunks are large in the beginning (few claims) and get smaller 
+        // towards the end (all threads finish at about the same time, even if some elements 
+        // are more expensive than others). To keep the claims cheap compared to the work, 
+        // chunks are not smaller than about CHUNK_TIME worth of elements.
+        final AtomicInteger next = new AtomicInteger(index.get());
+        final int minChunk = (int) Math.max(1, Math.min(toGo / (2 * NUM_THREADS), CHUNK_TIME / Math.max(cost, 1)));
+
+        final long start = System.nanoTime();
         final Runnable runner = new Runnable() {
             public void run() {
-                int bc = baseCount.getAndIncrement() * STEP_SIZE;
-                int lower = Math.max(index.get(), bc);
+                // Mark us as a worker, so that maps nested in the mapper don't oversubscribe the CPUs
+                executor.worker(true);
                 
-
-                // Get new basecount for every pass ...
-                while (lower < size) {
-                    final int max = Math.min(Math.min(lower + STEP_SIZE, size), bc + STEP_SIZE);
-
-                    // Pass over all elements
-                    for (int i = lower; i < max; i++) {
-                        mapper.handle(i);
+                try {
+                    // Claim a new chunk for every pass ...
+                    passes: while (true) {
+                        final int lower = next.get();
+                        if (lower >= size) break;
+                        
+                        final int chunk = Math.max((size - lower) / (2 * NUM_THREADS), minChunk);
+                        final int max = Math.min(lower + chunk, size);
+                        if (!next.compareAndSet(lower, max)) continue;
+
+                        // Pass over all elements
+                        final long start = statistics == null ? 0 : System.nanoTime();
+                        for (int i = lower; i < max; i++) {
+                            if (!handle(mapper, i, cancellation)) break passes;
+                        }
+                        
+                        if (statistics != null) statistics.chunk(max - lower, System.nanoTime() - start);
                     }
-
-                    bc = baseCount.getAndIncrement() * STEP_SIZE;
-                    lower = bc;
+                } finally {
+                    // Return our CPU
+                    executor.worker(false);
+                    cc.releaseCPUs(1);
                 }
 
                 // Signal finish
@@ -189,226 +340,232 @@ public abstract class Core implements Serializable {
                 } catch (InterruptedException e) {
                     e.printStackTrace();
                 } catch (BrokenBarrierException e) {
-                    e.printStackTrace();
+                    // Happens when the caller stopped waiting due to a deadline
                 }
             }
         };
 
         // Execute all our runnables.
         for(int i=0; i<NUM_THREADS; i++) {
-            cc.executor().getExecutor().execute(runner);
+            executor.getExecutor().execute(runner);
         }
 
-        // Wait for all threads to finish ...
+        // Wait for all threads to finish (or until the deadline) ...
         try {
-            barrier.await();
+            if (cancellation == null || cancellation.deadline() == null) {
+                barrier.await();
+            } else {
+                barrier.await(cancellation.deadline().remaining(), TimeUnit.NANOSECONDS);
+            }
         } catch (InterruptedException e) {
             e.printStackTrace();
         } catch (BrokenBarrierException e) {
             e.printStackTrace();
+        } catch (TimeoutException e) {
+            // The deadline passed, return what we have
+            return;
         }
         
-        // Release all CPUs we used
-        // cc.releaseCPUs(NUM_THREADS);
+        // Remember what each element cost (including our overhead)
+        if (cancellation == null || !cancellation.cancelled())
+            executor.cost(functions, type, (System.nanoTime() - start) * NUM_THREADS / toGo);
+    }
+
+    /**
+     * Maps an I/O bound core by handling each element in a task of its own, with at most
+     * <code>concurrency</code> tasks in flight.
+     * 
+     * @param mapper The mapper to use.
+     * @param size The number of elements.
+     * @param cancellation Tells us when to stop, might be <code>null</code>.
+     * @param concurrency The maximal number of elements in flight.
+     * @param statistics Collects statistics, might be <code>null</code>.
+     */
+    @SuppressWarnings("rawtypes")
+    private void mapIO(final Mapper mapper, final int size, final Cancellation cancellation,
+                       final int concurrency, final MapStatistics statistics) {
+        final ManagerExecution executor = this.commonCore.executor();
+        final ExecutorService pool = executor.getIOExecutor();
+        final Semaphore permits = new Semaphore(concurrency);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        try {
+            for (int i = 0; i < size; i++) {
+                if (cancellation != null && cancellation.cancelled()) break;
+                if (failure.get() != null) break;
+                if (!acquire(permits, 1, cancellation)) break;
+
+                final int index = i;
+                pool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Mark us as a worker, so that maps nested in the mapper don't oversubscribe the CPUs
+                        executor.worker(true);
+
+                        try {
+                            final long start = statistics == null ? 0 : System.nanoTime();
+                            if (handle(mapper, index, cancellation) && statistics != null)
+                                statistics.chunk(1, System.nanoTime() - start);
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t);
+                        } finally {
+                            executor.worker(false);
+                            permits.release();
+                        }
+                    }
+                });
+            }
+
+            // All elements are done once we get all permits back
+            acquire(permits, concurrency, cancellation);
+        } catch (InterruptedException e) {
+            // Keep the interrupt for our caller, but don't leave elements in flight behind
+            permits.acquireUninterruptibly(concurrency);
+            Thread.currentThread().interrupt();
+        }
+
+        // Pass on the first exception of the tasks, as the other engines do
+        final Throwable t = failure.get();
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+    }
+
+    /**
+     * Acquires the given number of permits, but waits at most until the deadline.
+     * 
+     * @param permits The semaphore to acquire from.
+     * @param n The number of permits.
+     * @param cancellation The cancellation or <code>null</code>.
+     * @return False if the deadline passed before we got the permits.
+     * @throws InterruptedException If we were interrupted.
+     */
+    private static boolean acquire(final Semaphore permits, final int n,
+                                   final Cancellation cancellation) throws InterruptedException {
+        if (cancellation == null || cancellation.deadline() == null) {
+            permits.acquire(n);
+            return true;
+        }
+
+        return permits.tryAcquire(n, cancellation.deadline().remaining(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Handles a single element, unless the operation has been cancelled.
+     * 
+     * @param mapper The mapper to use.
+     * @param i The element to handle.
+     * @param cancellation The cancellation or <code>null</code>.
+     * @return False if the operation has been cancelled.
+     */
+    @SuppressWarnings("rawtypes")
+    private static boolean handle(final Mapper mapper, final int i, final Cancellation cancellation) {
+        if (cancellation == null) {
+            mapper.handle(i);
+            return true;
+        }
+
+        return cancellation.handle(mapper, i);
+    }
+
+    /**
+     * Returns the size of the chunks in which <code>size</code> elements should be processed 
+     * by {@link #mapChunks(int, int, Class, Chunk, Option...)}. We use a few chunks per thread 
+     * so that the map can balance the load, but no chunk is smaller than <code>minChunk</code>. 
+     * With {@link Parallelism#SEQUENTIAL} all elements end up in a single chunk.
+     * 
+     * @param size The number of elements.
+     * @param minChunk The minimal number of elements per chunk.
+     * @param options Relevant options: {@link Parallelism}.
+     * @return The number of elements per chunk, at least 1.
+     */
+    protected int chunkSize(final int size, final int minChunk, final Option... options) {
+        final int threads = Options.$(options).parallelism().getThreads();
+        final int NUM_THREADS = threads > 0 ? threads : this.commonCore.profileInformation().numCPUs;
+        if (NUM_THREADS < 2) return Math.max(size, 1);
+
+        final int chunks = 4 * NUM_THREADS;
+        return Math.max(Math.max(minChunk, 1), (int) ((size + (long) chunks - 1) / chunks));
+    }
+
+    /**
+     * Splits the elements <code>[0, size)</code> into contiguous chunks of the given size and 
+     * handles all chunks in parallel. A single chunk is handled directly on the caller's thread.
+     * 
+     * @param <R> The result type of a chunk.
+     * @param size The number of elements.
+     * @param chunkSize The number of elements per chunk, see {@link #chunkSize(int, int, Option...)}.
+     * @param type The result type of a chunk.
+     * @param function The function to call for each chunk.
+     * @param options The caller's options, of which only {@link Parallelism} is passed on.
+     * @return The results of all chunks, in order.
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> R[] mapChunks(final int size, final int chunkSize, final Class<R> type,
+                                final Chunk<R> function, final Option... options) {
+        final int chunks = (int) ((size + (long) chunkSize - 1) / chunkSize);
+        if (chunks <= 1) {
+            final R[] rval = (R[]) Array.newInstance(type, chunks);
+            if (chunks == 1) rval[0] = function.f(0, 0, size);
+            return rval;
+        }
+
+        return this.commonCore.range(chunks).map(new F1<Number, R>() {
+            @Override
+            public R f(Number x) {
+                final int chunk = x.intValue();
+                final int from = chunk * chunkSize;
+                return function.f(chunk, from, Math.min(from + chunkSize, size));
+            }
+        }, MapType.TYPE(type), Options.$(options).parallelism()).array(type);
     }
 
     /**
      * Starts a parallel folding process.
      * 
      * @param folder The folder to use.
-     * @param options Relevant options: <code>OptionMapType</code>.
+     * @param options Relevant options: <code>OptionMapType</code>, {@link KillSwitch}, 
+     * {@link Deadline} and {@link Parallelism}.
      */
     @SuppressWarnings("rawtypes")
     protected void fold(final Folder folder, final Option... options) {
         final int size = folder.core().size();
 
-        // Quick pass for the probably most common events
+        // Quick pass for the probably most common events, which must stop early as well
+        final Cancellation cancellation = Cancellation.of(options);
         if (size <= 1) return;
         if (size == 2) {
-            folder.handle(0, 1, 0);
+            FoldTask.fold(folder, 0, size, cancellation);
             return;
         }
 
-        final int NUM_THREADS = this.commonCore.profileInformation().numCPUs; 
-
-        // Indicates which level (in the folding hierarchy) we are and where the next
-        // thread should proceed. The base count indicates where which element should be
-        // selected next by the thread, the level indicates how many times we already passed
-        // through the whole array.
-        final AtomicInteger baseCount = new AtomicInteger();
-        final AtomicInteger round = new AtomicInteger();
+        final int threads = Options.$(options).parallelism().getThreads();
+        final int NUM_THREADS = threads > 0 ? threads : this.commonCore.profileInformation().numCPUs;
 
-        // Synchronizes threads. Each thread waits at the level-barrier when it finished the last level,
-        // and waits the the global barrier when it is completely done. The main thread will also
-        // wait at the global barrier (thus +1) for all spawned threads.
-        final CyclicBarrier levelbarrier = new CyclicBarrier(NUM_THREADS);
-        final CyclicBarrier barrier = new CyclicBarrier(NUM_THREADS + 1);
-        
-        // Algorithm example for 10 elements and 4 CPUs :
+        // Algorithm example for 10 elements and 4 CPUs, fold = max:
         // Content: a b c d e f g h i j
-        // Array:   _ _ _ _ _ _ _ _ _ _
         // Index:   0 1 2 3 4 5 6 7 8 9
-        
-        // In general, we process in levels, in parallel. In each level, each thread
-        // takes the next two elements, merges them, and stores them in the position of 
-        // the first element. This means, after each level the number of elements we need to 
-        // consider halves.
-        
-        // 1) We create 4 runner threads
-        // 2) Each runner starts by picking / computing
-        //    2.1) The current level (0 in the beginning) - lvl
-        //    2.2) The distance of between X and Y for the fold operation in this level 2^0 = 1
-        // 3) Each level, we check if the distance is bigger than the actual size (10 in this 
-        //    case) of the array. If it is, we know we have finished.
-        // 4) The upper bound for each run is the size of the array minus the stepping distance
-        //    (10 - 1) = 9
-        // 5) The index X for this operation is the base count (0 * 1) = 0
-        // 6) The index Y is X + dist (0 + 1) = 1
-        // 7) Until we reached the upper bound:
-        //    7.1) handle the two elements
-        //    7.2) Take the next available elements (X, Y)
-        // ...
-        
-        // Given fold = max
-        
-        // Level 0, dist = 1
-        // 0 x 1 -> 0
-        // Content: b b c d e f g h i j
-        // 2 x 3 -> 2
-        // Content: b b d d e f g h i j
-        // 4 x 5 -> 4
-        // Content: b b d d f f g h i j
-        // 6 x 7 -> 6
-        // Content: b b d d f f h h i j
-        // 8 x 9 -> 8
-        // Content: b b d d f f h h i i
-        
-        // Level 1, dist = 2
-        // 0 x 2 -> 0
-        // Content: d b d d f f h h i i
-        // 4 x 6 -> 4
-        // Content: d b d d h f h h i i
-        // 4 x 8 -> 4
-        // Content: d b d d h i h h i i
-
-        // Level 2, dist = 4
-        // 0 x 4 -> 4
-        // Content: i b d d h i h h i i
 
-        // Return index[0]
-        
-        
-        final Runnable runner = new Runnable() {
-            public void run() {
-                int rnd = round.get();
-                int elementDistance = (int) Math.pow(2, rnd);
-
-                // Each thread processes as long as the distance between elements is smaller
-                // than the size
-                while (elementDistance < size) {
-                	// Each round the upper bound gets lower as we don't have to consider
-                	// the last elements
-                    final int upperBound = size - elementDistance;
-
-                    
-                    // Now we take a next element pair 
-                    int lastHandledI = -1;
-                    int i = baseCount.getAndAdd(2) * elementDistance;
-                    int j = i + elementDistance;
-
-                    // And each thread loop in here, until the right element
-                    // has left the righter bound
-                    while (j <= upperBound) {
-                    	// Process two elements and store them
-                        folder.handle(i, j, i);
-
-                        // Remember what we processed last
-                        lastHandledI = i;
-                        
-                        // Take the next available element pairs
-                        i = baseCount.getAndAdd(2) * elementDistance;
-                        j = i + elementDistance;
-                    }
+        // The range is split in halves until a part is not larger than the grain (here 2 
+        // elements). Each part is folded from left to right into its first slot by whichever 
+        // worker picked it up (idle workers steal pending parts from busy ones):
+        // [a b] [c] [d e] [f g] [h] [i j]
+        // 1 -> 0, 4 -> 3, 6 -> 5, 9 -> 8
+        // Content: b b c e e g g h j j
 
-                    
-                    // Ideally, at this point, we are through the array. However, it might be the case 
-                    // that an uneven number of elements was in that loop run
-                    // 10 -> 5 pairs
-                    // 11 -> 5 pairs, one left
-                    
-                    // So we check now if we were the thread processing the last element pair
-                    // in that turn, and if there was a sole element left
-                    
-                    // This is the case when we processed something (lastHandledI > 0)
-                    // and when element 2nd element to the right (the next one) exists
-                    // but its pair (the 3rd one) does not. 
-                    
-                    // In that case we connect this element wit the next one 
-                    
-                    if (lastHandledI + 2 * elementDistance <= upperBound && 
-                        	lastHandledI + 3 * elementDistance > upperBound &&
-                        	lastHandledI >= 0) {
-                        	folder.handle(lastHandledI, lastHandledI + 2 * elementDistance, lastHandledI);
-                    }
-                
-                    // At this point we finished the round
-                    try {
-                        levelbarrier.await();
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    } catch (BrokenBarrierException e) {
-                        e.printStackTrace();
-                    }
-                    
-                    
-                    // If we were the one who changed the level, we also change the baseCount 
-                    // back to 0
-                    if (round.compareAndSet(rnd, rnd + 1)) {
-                        baseCount.set(0);
-                    }
-                    
-                   
-                    // We first have to wait twice, as otherwise an other thread
-                    // might be quicker than us in returning up to the loop again and use the
-                    // old level value 
-                    
-
-                    // Now we all wait that the level has been updated
-                    try {
-                        levelbarrier.await();
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    } catch (BrokenBarrierException e) {
-                        e.printStackTrace();
-                    }
-                    
-                    // And get new parameters
-                    rnd = round.get();
-                    elementDistance = (int) Math.pow(2, rnd);
-                }
+        // Once both halves of a split are done, the worker that split them combines the 
+        // first slot of the right half into the first slot of the left half:
+        // 2 x 3 -> 2, 0 x 2 -> 0, 7 x 8 -> 7, 5 x 7 -> 5, and eventually 0 x 5 -> 0
 
-                try {
-                    barrier.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                } catch (BrokenBarrierException e) {
-                    e.printStackTrace();
-                }
-            }
-        };
+        // Return index[0]
 
-        // Execute all our runnables.
-        for(int i=0; i<NUM_THREADS; i++) {
-            this.commonCore.executor().getExecutor().execute(runner);
+        // There are no barriers between the levels, a combine only waits for its own two halves.
+        // With a kill switch or deadline parts that have not been folded yet are skipped.
+        final int grain = Math.max(size / (NUM_THREADS * 4), 2);
+        if (NUM_THREADS < 2 || size <= grain) {
+            FoldTask.fold(folder, 0, size, cancellation);
+            return;
         }
 
-        // Wait for all threads to finish ...
-        try {
-            barrier.await();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (BrokenBarrierException e) {
-            e.printStackTrace();
-        }
+        this.commonCore.executor().getForkJoinPool().invoke(new FoldTask(folder, 0, size, grain, cancellation));
     }
 }
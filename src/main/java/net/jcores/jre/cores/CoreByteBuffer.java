@@ -32,10 +32,12 @@ import static net.jcores.jre.CoreKeeper.$;
 import java.nio.ByteBuffer;
 
 import net.jcores.jre.CommonCore;
+import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.interfaces.functions.F1;
 import net.jcores.jre.options.Hash;
 import net.jcores.jre.options.Option;
-import net.jcores.jre.utils.internal.Bytes;
+import net.jcores.jre.options.TreeHash;
+import net.jcores.jre.utils.internal.Hashes;
 
 /**
  * Wraps a number of ByteBuffers and exposes some convenience functions. For example, 
@@ -76,16 +78,21 @@ public class CoreByteBuffer extends CoreObject<ByteBuffer> {
      * Multi-threaded.<br/>
      * <br/>
      * 
-     * @param options Accepts a {@link Hash} options for the method to use.
+     * @param options Accepts a {@link Hash} options for the method to use and {@link TreeHash}
+     * to hash large buffers in parallel.
      * @since 1.0
      * @return A CoreString containing the generated hashes.
      */
+    @SupportsOption(options = { Hash.class, TreeHash.class })
     public CoreString hash(Option... options) {
+        final CommonCore cc = this.commonCore;
         final String method = $(options).get(Hash.class, Hash.MD5).getMethod();
+        final TreeHash tree = $(options).get(TreeHash.class, null);
 
         return new CoreString(this.commonCore, map(new F1<ByteBuffer, String>() {
             public String f(final ByteBuffer x) {
-                return Bytes.generateHash(x, method);
+                if (tree != null) return Hashes.treeHash(cc, x, method, tree.getChunkSize());
+                return Hashes.hash(x, method);
             }
         }).array(String.class));
 
@@ -40,8 +40,13 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.jar.Manifest;
 import java.util.regex.Matcher;
@@ -52,15 +57,28 @@ import javax.sound.sampled.AudioInputStream;
 
 import net.jcores.jre.CommonCore;
 import net.jcores.jre.CoreKeeper;
+import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.cores.adapter.AbstractAdapter;
+import net.jcores.jre.cores.adapter.CompositeAdapter;
+import net.jcores.jre.cores.adapter.EmptyAdapter;
 import net.jcores.jre.interfaces.functions.F1;
 import net.jcores.jre.interfaces.functions.F1Object2Bool;
+import net.jcores.jre.options.Hash;
+import net.jcores.jre.options.IO;
 import net.jcores.jre.options.ListDirectories;
+import net.jcores.jre.options.MapType;
+import net.jcores.jre.options.Mapped;
 import net.jcores.jre.options.MessageType;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.options.PathFilter;
+import net.jcores.jre.options.TreeHash;
 import net.jcores.jre.utils.internal.Files;
+import net.jcores.jre.utils.internal.Hashes;
+import net.jcores.jre.utils.internal.Options;
 import net.jcores.jre.utils.internal.Sound;
 import net.jcores.jre.utils.internal.Streams;
+import net.jcores.jre.utils.internal.structures.AttributedFile;
 
 /**
  * Wraps a number of files and exposes some convenience functions. For example,
@@ -166,6 +184,34 @@ public class CoreFile extends CoreObject<File> {
         return append(object.toString() + "\n");
     }
 
+    /**
+     * Returns the basic attributes (size, dates, type) of all enclosed files. Files found by 
+     * {@link #dir(Option...)} already carry the attributes read while listing them, so they 
+     * are not read again (and reflect the state of the listing).<br/>
+     * <br/>
+     * 
+     * Examples:
+     * <ul>
+     * <li><code>$(".").file().dir().attributes()</code> - Returns the attributes of all files below the 
+     * current directory.</li>
+     * </ul>
+     * 
+     * Multi-threaded.<br/>
+     * <br/>
+     * 
+     * @return A core with the attributes, <code>null</code> for files that could not be read.
+     */
+    public CoreObject<BasicFileAttributes> attributes() {
+        final CommonCore cc = this.commonCore;
+        return map(new F1<File, BasicFileAttributes>() {
+            public BasicFileAttributes f(File x) {
+                final BasicFileAttributes attributes = Files.attributes(x);
+                if (attributes == null) cc.report(MessageType.EXCEPTION, "Error reading attributes of " + x);
+                return attributes;
+            }
+        }, MapType.TYPE(BasicFileAttributes.class));
+    }
+
     
     /**
      * Treats the given files as audio files and returns a {@link CoreAudioInputStream} for them.<br/>
@@ -246,35 +292,60 @@ public class CoreFile extends CoreObject<File> {
      * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Optional arguments, especially {@link IO}. With {@link Mapped} the data 
+     * is not copied onto the heap, large files are mapped into memory instead and small ones 
+     * are read into direct buffers. These buffers are read-only.
+     * 
      * @return A CoreByteBuffer with binary content.
      */
-    public CoreByteBuffer data() {
+    @SupportsOption(options = { IO.class, Mapped.class })
+    public CoreByteBuffer data(Option... options) {
         final CommonCore cc = this.commonCore;
+        final boolean mapped = Options.$(options).mapped();
+
         return new CoreByteBuffer(this.commonCore, map(new F1<File, ByteBuffer>() {
             public ByteBuffer f(File x) {
+                FileChannel channel = null;
                 try {
-                    final FileChannel channel = new FileInputStream(x).getChannel();
+                    channel = new FileInputStream(x).getChannel();
                     final long size = channel.size();
 
-                    final ByteBuffer buffer = ByteBuffer.allocate((int) size);
-                    int read = channel.read(buffer);
+                    if (size > Integer.MAX_VALUE) {
+                        cc.report(MessageType.EXCEPTION, "Error reading data() from " + x + ". File too large (" + size + ")");
+                        return null;
+                    }
 
-                    if (read != size) {
-                        cc.report(MessageType.EXCEPTION, "Error reading data() from " + x + ". Size mismatch (" + read + " != " + size + ")");
+                    // Large files don't need to be read at all
+                    if (mapped && size > Mapped.THRESHOLD) 
+                        return channel.map(MapMode.READ_ONLY, 0, size);
+
+                    final ByteBuffer buffer = mapped ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+                    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                        // Read until the buffer is full 
+                    }
+
+                    if (buffer.hasRemaining()) {
+                        cc.report(MessageType.EXCEPTION, "Error reading data() from " + x + ". Size mismatch (" + buffer.position() + " != " + size + ")");
                         return null;
                     }
 
-                    channel.close();
-                    return buffer;
+                    ((Buffer) buffer).flip();
+                    return mapped ? buffer.asReadOnlyBuffer() : buffer;
                 } catch (FileNotFoundException e) {
                     cc.report(MessageType.EXCEPTION, "Error reading data() from " + x + ". File not found!");
                     return null;
                 } catch (IOException e) {
                     cc.report(MessageType.EXCEPTION, "Error reading data() from " + x + ". IOException!");
                     return null;
+                } finally {
+                    if (channel != null) try {
+                        channel.close();
+                    } catch (IOException e) {
+                        cc.report(MessageType.EXCEPTION, "Error closing " + x);
+                    }
                 }
             }
-        }).array(ByteBuffer.class));
+        }, options).array(ByteBuffer.class));
     }
 
     /**
@@ -364,32 +435,45 @@ public class CoreFile extends CoreObject<File> {
 
     /**
      * Lists the contents of all sub directories. A CoreFile with all found files
-     * in all sub directories is returned.<br/>
+     * in all sub directories is returned. The attributes read while listing are kept with 
+     * the files, see {@link #attributes()}. Links are followed, but each directory is only 
+     * entered once.<br/>
      * <br/>
      * 
      * Examples:
      * <ul>
      * <li><code>$(".").file().dir().print()</code> - Lists all files below the current directory.</li>
+     * <li><code>$(".").file().dir(PathFilter.EXCLUDE_GLOB("**&#47;.svn")).print()</code> - Lists all files, 
+     * but does not descend into <code>.svn</code> directories.</li>
      * </ul>
      * 
      * Multi-threaded.<br/>
      * <br/>
      * 
-     * @param options Accepts {@link ListDirectories} in case sub directories should be considered as well.
+     * @param options Accepts {@link ListDirectories} in case sub directories should be considered as well, 
+     * {@link PathFilter} to filter the entries while they are listed and {@link IO} to list directories 
+     * with more threads than CPUs.
      * 
      * @return A CoreFile with all found files (and, if selected, directories).
      */
+    @SupportsOption(options = { ListDirectories.class, PathFilter.class, IO.class })
     public CoreFile dir(Option... options) {
+        final CommonCore cc = this.commonCore;
 
         // Check if we should emit diretories
         final boolean listDirs = net.jcores.jre.CoreKeeper.$(options).contains(ListDirectories.DO);
+        final PathFilter[] filters = Options.$(options).pathFilters();
+        final IO io = Options.$(options).io();
 
-        return map(new F1<File, File[]>() {
+        final CoreObject<File> files = map(new F1<File, File[]>() {
             @Override
             public File[] f(File x) {
-                return Files.dir(x, listDirs);
+                return Files.dir(cc, x, listDirs, io, filters);
             }
-        }).expand(File.class).unique().as(CoreFile.class);
+        }).expand(File.class);
+
+        // A single walk never returns duplicates
+        return (size() > 1 ? files.unique() : files).as(CoreFile.class);
     }
 
     /**
@@ -411,6 +495,9 @@ public class CoreFile extends CoreObject<File> {
         return new CoreNumber(this.commonCore, map(new F1<File, Long>() {
             @SuppressWarnings("boxing")
             public Long f(final File x) {
+                // Sizes found by dir() don't have to be read again
+                if (x instanceof AttributedFile && ((AttributedFile) x).attributes() != null)
+                    return ((AttributedFile) x).attributes().size();
                 return x.length();
             }
         }).array(Long.class));
@@ -430,7 +517,8 @@ public class CoreFile extends CoreObject<File> {
      * <br/>
      * 
      * @param regex The regular expression to use.
-     * @param options Currently none used.
+     * @param options Currently none used. To not list unwanted files in the first place, pass a 
+     * {@link PathFilter} to {@link #dir(Option...)} instead.
      * 
      * @return A CoreFile containing a filtered subset of our elements.
      */
@@ -445,6 +533,74 @@ public class CoreFile extends CoreObject<File> {
         }, options).array(File.class));
     }
 
+    /**
+     * Hashes the content of all enclosed files. The files are streamed through the digest and 
+     * never loaded completely, larger files are scheduled first so a single big file does not 
+     * end up being hashed last while all other threads are already idle.<br/>
+     * <br/>
+     * 
+     * Examples:
+     * <ul>
+     * <li><code>$(".").file().dir().hash().print()</code> - Prints the MD5 of all files below the given directory.</li>
+     * </ul>
+     * 
+     * Multi-threaded.<br/>
+     * <br/>
+     * 
+     * @param options Accepts a {@link Hash} option for the method to use, {@link IO} (by default 
+     * as many files as CPUs are hashed at once), {@link Parallelism} and {@link TreeHash}. With {@link TreeHash} each file is hashed in independent chunks in 
+     * parallel and the result is the hash over the chunk hashes, which differs from the plain 
+     * hash of the file.
+     * @since 1.0
+     * @return A CoreString containing the generated hashes.
+     */
+    @SupportsOption(options = { Hash.class, TreeHash.class, IO.class, Parallelism.class })
+    public CoreString hash(Option... options) {
+        final CommonCore cc = this.commonCore;
+        final String method = CoreKeeper.$(options).get(Hash.class, Hash.MD5).getMethod();
+        final TreeHash tree = CoreKeeper.$(options).get(TreeHash.class, null);
+        final String[] rval = new String[size()];
+
+        // Order the files by their size, largest first
+        final Integer[] order = new Integer[rval.length];
+        final long[] sizes = new long[rval.length];
+        int n = 0;
+        for (int i = 0; i < rval.length; i++) {
+            final File file = get(i);
+            if (file == null) continue;
+            sizes[i] = file.length();
+            order[n++] = Integer.valueOf(i);
+        }
+
+        final Integer[] sorted = Arrays.copyOf(order, n);
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(sizes[o2.intValue()], sizes[o1.intValue()]);
+            }
+        });
+
+        // The files are handed out one at a time in that order (as the I/O engine does), chunks 
+        // of the sorted files would again put all large files onto the same thread
+        final Options options$ = Options.$(options);
+        Option[] all = options;
+        if (options$.io() == null) {
+            final int threads = options$.parallelism().getThreads();
+            all = Arrays.copyOf(options, options.length + 1);
+            all[options.length] = IO.CONCURRENCY(threads > 0 ? threads : cc.profileInformation().numCPUs);
+        }
+
+        new CoreObject<Integer>(cc, sorted).map(new F1<Integer, Void>() {
+            public Void f(Integer x) {
+                final File file = get(x.intValue());
+                rval[x.intValue()] = tree == null ? Hashes.hash(cc, file, method) : 
+                                                    Hashes.treeHash(cc, file, method, tree.getChunkSize());
+                return null;
+            }
+        }, all);
+
+        return new CoreString(cc, rval);
+    }
+
     /**
      * Tries to load all enclosed files as images.<br/>
      * <br/>
@@ -486,9 +642,12 @@ public class CoreFile extends CoreObject<File> {
      * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Optional arguments, especially {@link IO}.
+     * 
      * @return A CoreInputStream with the opened files.
      */
-    public CoreInputStream input() {
+    @SupportsOption(options = { IO.class })
+    public CoreInputStream input(Option... options) {
         return new CoreInputStream(this.commonCore, map(new F1<File, InputStream>() {
             public InputStream f(File x) {
                 try {
@@ -496,7 +655,7 @@ public class CoreFile extends CoreObject<File> {
                 } catch (FileNotFoundException e) {}
                 return null;
             }
-        }).array(InputStream.class));
+        }, options).array(InputStream.class));
     }
 
     /**
@@ -524,6 +683,40 @@ public class CoreFile extends CoreObject<File> {
         return this;
     }
 
+    /**
+     * Returns the lines of all files, one entry per line, without their line breaks. In 
+     * contrast to <code>text()</code> the files are mapped into memory and each line is only 
+     * decoded (as UTF-8) when it is accessed, so this also works for files larger than 
+     * the heap. Only the positions of the line breaks are kept in memory, they are found 
+     * in parallel.<br/>
+     * <br/>
+     * 
+     * Examples:
+     * <ul>
+     * <li><code>$("server.log").file().lines().filter(".*ERROR.*").print()</code> - Prints all 
+     * lines containing an error.</li>
+     * </ul>
+     * 
+     * Multi-threaded.<br/>
+     * <br/>
+     * 
+     * @return A CoreString object containing the lines of all files.
+     */
+    public CoreString lines() {
+        AbstractAdapter<String> rval = new EmptyAdapter<String>();
+
+        for (File file : this) {
+            if (file == null) continue;
+
+            final AbstractAdapter<String> lines = Files.lines(this.commonCore, file);
+            if (lines == null || lines.size() == 0) continue;
+
+            rval = rval.size() == 0 ? lines : CompositeAdapter.concat(rval, lines);
+        }
+
+        return new CoreString(this.commonCore, rval);
+    }
+
     /**
      * Creates all enclosed directories and return this object again.<br/>
      * <br/>
@@ -563,15 +756,18 @@ public class CoreFile extends CoreObject<File> {
      * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Optional arguments, especially {@link IO}.
+     * 
      * @return A CoreString object containing the files' contents.
      */
-    public CoreString text() {
+    @SupportsOption(options = { IO.class })
+    public CoreString text(Option... options) {
         final CommonCore cc = this.commonCore;
         return new CoreString(this.commonCore, map(new F1<File, String>() {
             public String f(final File x) {
                 return Files.readText(cc, x);
             }
-        }).array(String.class));
+        }, options).array(String.class));
     }
 
     /**
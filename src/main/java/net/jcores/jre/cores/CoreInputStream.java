@@ -43,6 +43,7 @@ import net.jcores.jre.interfaces.functions.F1;
 import net.jcores.jre.options.Hash;
 import net.jcores.jre.options.MessageType;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.utils.internal.Hashes;
 import net.jcores.jre.utils.internal.Sound;
 import net.jcores.jre.utils.internal.Streams;
 
@@ -327,7 +328,7 @@ public class CoreInputStream extends CoreObject<InputStream> {
 
         return new CoreString(this.commonCore, map(new F1<InputStream, String>() {
             public String f(final InputStream x) {
-                String generateHash = Streams.generateHash(x, method);
+                String generateHash = Hashes.hash(x, method);
 
                 try {
                     x.close();
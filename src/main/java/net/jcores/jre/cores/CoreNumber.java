@@ -28,12 +28,21 @@
 package net.jcores.jre.cores;
 
 import java.text.DecimalFormat;
+import java.util.Arrays;
 
 import net.jcores.jre.CommonCore;
+import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.cores.adapter.AbstractAdapter;
+import net.jcores.jre.cores.adapter.DoubleArrayAdapter;
+import net.jcores.jre.cores.adapter.IntArrayAdapter;
+import net.jcores.jre.cores.adapter.LongArrayAdapter;
+import net.jcores.jre.cores.adapter.NumberAdapter;
 import net.jcores.jre.interfaces.functions.F1;
 import net.jcores.jre.interfaces.functions.F2ReduceObjects;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.utils.Statistics;
+import net.jcores.jre.utils.internal.processing.Chunk;
 
 /**
  * Wraps a number of Numbers and exposes some convenience functions. For example,
@@ -60,6 +69,36 @@ public class CoreNumber extends CoreObject<Number> {
         super(supercore, objects);
     }
 
+    /**
+     * Wraps a number of ints without boxing them.
+     * 
+     * @param supercore The shared CommonCore.
+     * @param values The numbers to wrap.
+     */
+    public CoreNumber(CommonCore supercore, int[] values) {
+        super(supercore, new IntArrayAdapter(values));
+    }
+
+    /**
+     * Wraps a number of longs without boxing them.
+     * 
+     * @param supercore The shared CommonCore.
+     * @param values The numbers to wrap.
+     */
+    public CoreNumber(CommonCore supercore, long[] values) {
+        super(supercore, new LongArrayAdapter(values));
+    }
+
+    /**
+     * Wraps a number of doubles without boxing them.
+     * 
+     * @param supercore The shared CommonCore.
+     * @param values The numbers to wrap.
+     */
+    public CoreNumber(CommonCore supercore, double[] values) {
+        super(supercore, new DoubleArrayAdapter(values));
+    }
+
     /**
      * @param supercore The shared CommonCore.
      * @param adapter The adapter.
@@ -77,14 +116,16 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(1, 3).average()</code> - Returns the average of 1 and 3, which is 2.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @since 1.0
      * @return The average of all enclosed numbers. If no numbers are enclosed, <code>0</code> is returned.
      */
-    public double average() {
-        return average(0.0);
+    @SupportsOption(options = { Parallelism.class })
+    public double average(Option... options) {
+        return average(0.0, options);
     }
 
 
@@ -98,32 +139,24 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(null).average(Double.NaN)</code> - Returns <code>NaN</code>.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
      * @param alternative The alternative to return if no, or only <code>NaN</code> / 
      * <code>null</code> elements are enclosed. 
+     * @param options Relevant options: {@link Parallelism}.
      * 
      * @since 1.0
      * @return The average of all enclosed numbers. If no numbers (or no actual numbers) are enclosed, 
      * <code>alternative</code> is returned.
      */
-    public double average(double alternative) {
-        int cnt = 0;
-        double sum = 0.0;
-
-        // Compute the average of all values
-        for (Number number : this) {
-            if (number == null) continue;
-            if (Double.isNaN(number.doubleValue())) continue;
-
-            sum += number.doubleValue();
-            cnt++;
-        }
+    @SupportsOption(options = { Parallelism.class })
+    public double average(double alternative, Option... options) {
+        final Statistics stats = stats(options);
 
-        // If we haven't had any element, return 0
-        if (cnt == 0) return alternative;
-        return sum / cnt;
+        // If we haven't had any element, return the alternative
+        if (stats.count() == 0) return alternative;
+        return stats.mean();
     }
 
     
@@ -165,9 +198,14 @@ public class CoreNumber extends CoreObject<Number> {
      * @return An array of doubles to return. Null objects are converted to <code>Double.NaN</code>.
      */
     public double[] ds() {
+        if (this.adapter instanceof DoubleArrayAdapter) {
+            final double[] doubles = ((DoubleArrayAdapter) this.adapter).doubles();
+            return Arrays.copyOf(doubles, doubles.length);
+        }
+
         double rval[] = new double[size()];
         for (int i = 0; i < rval.length; i++) {
-            rval[i] = get(i) == null ? Double.NaN : get(i).doubleValue();
+            rval[i] = value(i);
         }
 
         return rval;
@@ -211,9 +249,21 @@ public class CoreNumber extends CoreObject<Number> {
      * @return An array of integers to return. Null objects are converted to <code>0</code>.
      */
     public int[] is() {
+        if (this.adapter instanceof IntArrayAdapter) {
+            final int[] ints = ((IntArrayAdapter) this.adapter).ints();
+            return Arrays.copyOf(ints, ints.length);
+        }
+
+        final NumberAdapter numbers = this.adapter instanceof NumberAdapter ? (NumberAdapter) this.adapter : null;
         int rval[] = new int[size()];
         for (int i = 0; i < rval.length; i++) {
-            rval[i] = get(i) == null ? 0 : get(i).intValue();
+            if (numbers != null) {
+                rval[i] = numbers.i(i);
+                continue;
+            }
+
+            final Number number = this.adapter.get(i);
+            rval[i] = number == null ? 0 : number.intValue();
         }
         return rval;
     }
@@ -227,14 +277,16 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(3, 1, 2).max()</code> - Returns 3.0.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @since 1.0
      * @return The maximum value enclosed in this core, or <code>0</code> if no value was found.
      */
-    public double max() {
-        return max(0.0);
+    @SupportsOption(options = { Parallelism.class })
+    public double max(Option... options) {
+        return max(0.0, options);
     }
     
 
@@ -248,23 +300,18 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(null, Double.NaN).min(1.0)</code> - Returns 1.0</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
      * @param alternative The alternative to return when the result would otherwise be <code>null</code> /
      * <code>NaN</code>. 
+     * @param options Relevant options: {@link Parallelism}.
      * @return The maximum value enclosed in this core, or <code>0</code> if no value was found.
      */
-    @SuppressWarnings("boxing")
-    public double max(final double alternative) {
-        double value = reduce(new F2ReduceObjects<Number>() {
-            @Override
-            public Number f(Number left, Number right) {
-                return Math.max(left.doubleValue(), right.doubleValue());
-            }
-        }).get(Double.valueOf(alternative)).doubleValue();
-
-        return Double.isNaN(value) ? alternative : value;
+    @SupportsOption(options = { Parallelism.class })
+    public double max(final double alternative, Option... options) {
+        final Statistics stats = stats(options);
+        return stats.count() == 0 ? alternative : stats.max();
     }
 
 
@@ -277,13 +324,15 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(3, 1, -2).min()</code> - Returns -2.0.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @return The maximum value enclosed in this core, or <code>0</code> if no value was found.
      */
-    public double min() {
-        return min(0.0);
+    @SupportsOption(options = { Parallelism.class })
+    public double min(Option... options) {
+        return min(0.0, options);
     }
 
     /**
@@ -296,23 +345,38 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(null, Double.NaN).min(1.0)</code> - Returns 1.0</li>
      * </ul>
      * 
-     * Single-threaded.<br/>
+     * Multi-threaded.<br/>
      * <br/>
      * 
      * @param alternative The alternative to return when the result would otherwise be <code>null</code> /
      * <code>NaN</code>. 
+     * @param options Relevant options: {@link Parallelism}.
      * @return The minimum value enclosed in this core, or <code>0</code> if no value was found.
      */
-    @SuppressWarnings("boxing")
-    public double min(final double alternative) {
-        double value = reduce(new F2ReduceObjects<Number>() {
+    @SupportsOption(options = { Parallelism.class })
+    public double min(final double alternative, Option... options) {
+        final Statistics stats = stats(options);
+        return stats.count() == 0 ? alternative : stats.min();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see net.jcores.shared.cores.CoreObject#fold(net.jcores.shared.interfaces.functions.F2ReduceObjects,
+     * net.jcores.shared.options.Option[])
+     */
+    @Override
+    public CoreObject<Number> fold(final F2ReduceObjects<Number> f,
+                                   final Option... options) {
+        // We call super.fold, but we don't consider NaN numbers.
+        return super.fold(new F2ReduceObjects<Number>() {
             @Override
             public Number f(Number left, Number right) {
-                return Math.min(left.doubleValue(), right.doubleValue());
+                if (Double.isNaN(left.doubleValue())) return right;
+                if (Double.isNaN(right.doubleValue())) return left;
+                return f.f(left, right);
             }
-        }).get(Double.valueOf(alternative)).doubleValue();
-
-        return Double.isNaN(value) ? alternative : value;
+        }, options);
     }
 
     /*
@@ -388,15 +452,71 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(2, -2, 2, -2).standarddeviation()</code> - Returns 2.0.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @since 1.0
      * @return The standard deviation of all enclosed numbers. If no numbers are
      * enclosed, <code>0</code> is returned.
      */
-    public double standarddeviation() {
-        return Math.sqrt(variance());
+    @SupportsOption(options = { Parallelism.class })
+    public double standarddeviation(Option... options) {
+        return Math.sqrt(variance(options));
+    }
+
+    /**
+     * Computes count, sum, minimum, maximum, mean and variance of all enclosed numbers in a 
+     * single pass. Larger cores are split into chunks that are processed in parallel and whose 
+     * partial results are merged afterwards. <code>null</code> and <code>NaN</code> elements 
+     * are ignored.<br/>
+     * <br/>
+     * 
+     * Examples:
+     * <ul>
+     * <li><code>$(2, -2, 2, -2).stats().variance()</code> - Returns 4.0.</li>
+     * </ul>
+     * 
+     * Multi-threaded.<br/>
+     * <br/>
+     * 
+     * @param options Relevant options: {@link Parallelism}.
+     * @since 1.0
+     * @return The {@link Statistics} of all enclosed numbers.
+     */
+    @SupportsOption(options = { Parallelism.class })
+    public Statistics stats(Option... options) {
+        final int size = size();
+
+        // Compute the statistics of each chunk and merge them
+        final Statistics[] partials = mapChunks(size, chunkSize(size, 1024), Statistics.class, new Chunk<Statistics>() {
+            @Override
+            public Statistics f(int chunk, int from, int to) {
+                return stats(from, to);
+            }
+        }, options);
+
+        final Statistics rval = new Statistics();
+        for (Statistics partial : partials) {
+            rval.merge(partial);
+        }
+
+        return rval;
+    }
+
+    /**
+     * Returns the statistics of the given range.
+     * 
+     * @param from The first offset (inclusive).
+     * @param to The last offset (exclusive).
+     * @return The statistics of that range.
+     */
+    private Statistics stats(int from, int to) {
+        final Statistics rval = new Statistics();
+        for (int i = from; i < to; i++) {
+            rval.add(value(i));
+        }
+        return rval;
     }
 
     /**
@@ -433,27 +553,17 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(1, 2, 3).sum()</code> - Returns 6.0.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @since 1.0
      * @return The sum of all enclosed numbers. If no numbers are
      * enclosed, <code>0</code> is returned.
      */
-    public double sum() {
-        final int size = size();
-        double sum = 0.0;
-
-        // Compute the average of all values
-        for (int i = 0; i < size; i++) {
-            final Number number = get(i);
-            if (number == null) continue;
-            if (Double.isNaN(number.doubleValue())) continue;
-
-            sum += number.doubleValue();
-        }
-
-        return sum;
+    @SupportsOption(options = { Parallelism.class })
+    public double sum(Option... options) {
+        return stats(options).sum();
     }
 
     /**
@@ -465,32 +575,32 @@ public class CoreNumber extends CoreObject<Number> {
      * <li><code>$(2, -2, 2, -2).variance()</code> - Returns 4.0.</li>
      * </ul>
      * 
-     * Single-threaded.<br/>>
+     * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Relevant options: {@link Parallelism}.
      * @since 1.0
      * @return The variance of all enclosed numbers. If no numbers are enclosed, <code>0</code> is returned.
      */
-    public double variance() {
-        final double average = average();
-        final int size = size();
-
-        int cnt = 0;
-        double rval = 0;
-
-        // Compute the variance
-        for (int i = 0; i < size; i++) {
-            final Number number = get(i);
-            if (number == null) continue;
-            if (Double.isNaN(number.doubleValue())) continue;
-
-            rval += (average - number.doubleValue()) * (average - number.doubleValue());
-            cnt++;
-        }
+    @SupportsOption(options = { Parallelism.class })
+    public double variance(Option... options) {
+        final Statistics stats = stats(options);
 
         // If we haven't had any element, return 0
-        if (cnt == 0) return 0;
+        if (stats.count() == 0) return 0;
+        return stats.variance();
+    }
+
+    /**
+     * Returns the number at the given offset as a double without boxing it if possible.
+     * 
+     * @param i The offset.
+     * @return The value, or <code>NaN</code> for <code>null</code> elements.
+     */
+    private double value(int i) {
+        if (this.adapter instanceof NumberAdapter) return ((NumberAdapter) this.adapter).d(i);
 
-        return rval / cnt;
+        final Number number = this.adapter.get(i);
+        return number == null ? Double.NaN : number.doubleValue();
     }
 }
@@ -39,13 +39,17 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Random;
+import java.util.Set;
 import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
@@ -57,6 +61,7 @@ import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.cores.adapter.AbstractAdapter;
 import net.jcores.jre.cores.adapter.ArrayAdapter;
 import net.jcores.jre.cores.adapter.CollectionAdapter;
+import net.jcores.jre.cores.adapter.CompositeAdapter;
 import net.jcores.jre.cores.adapter.EmptyAdapter;
 import net.jcores.jre.cores.adapter.ListAdapter;
 import net.jcores.jre.interfaces.functions.F0;
@@ -67,18 +72,29 @@ import net.jcores.jre.interfaces.functions.F2ReduceObjects;
 import net.jcores.jre.interfaces.functions.Fn;
 import net.jcores.jre.managers.ManagerDebugGUI;
 import net.jcores.jre.managers.ManagerDeveloperFeedback;
+import net.jcores.jre.options.Associative;
+import net.jcores.jre.options.Completion;
+import net.jcores.jre.options.Deadline;
+import net.jcores.jre.options.Identity;
 import net.jcores.jre.options.InvertSelection;
+import net.jcores.jre.options.KillSwitch;
+import net.jcores.jre.options.MapStatistics;
 import net.jcores.jre.options.MapType;
 import net.jcores.jre.options.MessageType;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.options.Parallelism;
 import net.jcores.jre.utils.Async;
+import net.jcores.jre.utils.Lazy;
 import net.jcores.jre.utils.internal.Objects;
 import net.jcores.jre.utils.internal.Options;
 import net.jcores.jre.utils.internal.Streams;
+import net.jcores.jre.utils.internal.processing.Chunk;
 import net.jcores.jre.utils.internal.processing.Folder;
 import net.jcores.jre.utils.internal.processing.Mapper;
-import net.jcores.jre.utils.internal.wrapper.Wrapper;
+import net.jcores.jre.utils.internal.processing.SortTask;
+import net.jcores.jre.utils.internal.structures.Counter;
 import net.jcores.jre.utils.map.Compound;
+import net.jcores.jre.utils.map.MapEntry;
 
 /**
  * The standard core that wraps a number of objects and exposes a number of
@@ -220,6 +236,11 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>a</code>, <code>b</code> and <code>c</code>.</li>
 	 * </ul>
 	 * 
+	 * The elements of both cores are not copied, the resulting core chains
+	 * both of them, so that accumulating many cores with <code>add()</code>
+	 * stays cheap.<br/>
+	 * <br/>
+	 * 
 	 * Single-threaded. <br/>
 	 * <br/>
 	 * 
@@ -229,23 +250,13 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * @return A CoreObject containing all objects of this core and the other
 	 *         core.
 	 */
-	@SuppressWarnings("unchecked")
 	public CoreObject<T> add(CoreObject<T> toAdd) {
 		if (size() == 0)
 			return toAdd;
 		if (toAdd.size() == 0)
 			return this;
 
-		Class<?> clazz = this.adapter.clazz();
-
-		final T[] copy = (T[]) Array.newInstance(clazz, size() + toAdd.size());
-		final Object[] a = this.adapter.array(clazz);
-		final Object[] b = toAdd.adapter.array(clazz);
-
-		System.arraycopy(a, 0, copy, 0, a.length);
-		System.arraycopy(b, 0, copy, a.length, b.length);
-
-		return new CoreObject<T>(this.commonCore, copy);
+		return new CoreObject<T>(this.commonCore, CompositeAdapter.concat(this.adapter, toAdd.adapter));
 	}
 
 	/**
@@ -745,33 +756,113 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * 
 	 * Examples:
 	 * <ul>
-	 * <li><code>$("a", "a", "b").contains().value("a")</code> - Returns 2.</li>
+	 * <li><code>$("a", "a", "b").count().value("a")</code> - Returns 2.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. To pass options, use
+	 * <code>count(null, options)</code>.<br/>
 	 * <br/>
 	 * 
 	 * @return A CoreMap with the counts for each unique object.
 	 */
-	@SuppressWarnings("boxing")
 	public CoreMap<T, Integer> count() {
-		final Map<T, Integer> results = new HashMap<T, Integer>();
+		return count(null);
+	}
 
-		// Now generate the histogram.
-		for (T e : this) {
-			if (e == null)
+	/**
+	 * Counts how many elements of this core map to each key returned by the
+	 * given function (i.e., computes a grouped histogram). Elements for which
+	 * the function returns <code>null</code> are not counted. <br/>
+	 * <br/>
+	 * 
+	 * Examples:
+	 * <ul>
+	 * <li><code>$("aa", "b", "cc").count(length).value(2)</code> - Returns 2,
+	 * given <code>length</code> returns the length of a string.</li>
+	 * </ul>
+	 * 
+	 * Multi-threaded. <br/>
+	 * <br/>
+	 * 
+	 * @param <K> The type of the keys.
+	 * @param keyFn
+	 *            The function computing the key of each element. If
+	 *            <code>null</code> the elements themselves are counted.
+	 * @param options
+	 *            Relevant options: {@link Parallelism}.
+	 * @return A CoreMap with the counts for each key.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@SupportsOption(options = { Parallelism.class })
+	public <K> CoreMap<K, Integer> count(final F1<T, K> keyFn, Option... options) {
+		final int size = size();
+
+		// Each chunk is counted into a map of its own, so threads never share
+		// a counter.
+		final Map[] partials = mapChunks(size, chunkSize(size, 1024), Map.class, new Chunk<Map>() {
+			@Override
+			public Map f(int chunk, int from, int to) {
+				return count(keyFn, from, to);
+			}
+		}, options);
+
+		// Merge all partial maps into the first one
+		final Map<K, Counter> results = partials.length == 0 ? new HashMap<K, Counter>() : partials[0];
+		for (int i = 1; i < partials.length; i++) {
+			final Map<K, Counter> partial = partials[i];
+			for (Entry<K, Counter> entry : partial.entrySet()) {
+				final Counter counter = results.get(entry.getKey());
+				if (counter == null) {
+					results.put(entry.getKey(), entry.getValue());
+				} else {
+					counter.value += entry.getValue().value;
+				}
+			}
+		}
+
+		// Eventually return the results
+		final MapEntry<K, Integer> entries[] = new MapEntry[results.size()];
+		int i = 0;
+		for (Entry<K, Counter> entry : results.entrySet()) {
+			entries[i++] = new MapEntry<K, Integer>(entry.getKey(), Integer.valueOf(entry.getValue().value));
+		}
+
+		return new CoreMap<K, Integer>(this.commonCore, entries);
+	}
+
+	/**
+	 * Computes the histogram of the given range.
+	 * 
+	 * @param keyFn
+	 *            The key function, or <code>null</code> to count the elements.
+	 * @param from
+	 *            The first offset (inclusive).
+	 * @param to
+	 *            The last offset (exclusive).
+	 * @return A map with a counter for each key.
+	 */
+	@SuppressWarnings("unchecked")
+	private <K> Map<K, Counter> count(final F1<T, K> keyFn, int from, int to) {
+		final Map<K, Counter> results = new HashMap<K, Counter>();
+
+		for (int i = from; i < to; i++) {
+			final T element = this.adapter.get(i);
+			if (element == null)
+				continue;
+
+			final K key = keyFn == null ? (K) element : keyFn.f(element);
+			if (key == null)
 				continue;
 
-			if (results.containsKey(e)) {
-				results.put(e, results.get(e) + 1);
+			final Counter counter = results.get(key);
+			if (counter == null) {
+				results.put(key, new Counter(1));
 			} else {
-				results.put(e, 1);
+				counter.value++;
 			}
 		}
 
-		// Eventually return the results
-		return new CoreMap<T, Integer>(this.commonCore,
-				Wrapper.convert(results));
+		return results;
 	}
 
 	/**
@@ -828,12 +919,13 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * @param <R>
 	 *            Type of the result.
 	 * @param options
-	 *            Relevant options, especiall {@link MapType}.
+	 *            Relevant options, especiall {@link MapType} and
+	 *            {@link Parallelism}.
 	 * 
 	 * @return A core of size n - 1 containing all deltas.
 	 */
 	@SuppressWarnings("unchecked")
-	@SupportsOption(options = { MapType.class })
+	@SupportsOption(options = { MapType.class, Parallelism.class })
 	public <R> CoreObject<R> delta(final F2DeltaObjects<T, R> delta,
 			Option... options) {
 		// Create mapper
@@ -1169,26 +1261,84 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 *            If f returns true the object is kept.
 	 * @param options
 	 *            Supports {@link InvertSelection} if the filter logic should be
-	 *            inverted.
+	 *            inverted and {@link Parallelism}.
 	 * 
 	 * @return A new CoreObject of our type, containing only kept elements.
 	 */
-	@SupportsOption(options = { InvertSelection.class })
+	@SuppressWarnings("unchecked")
+	@SupportsOption(options = { InvertSelection.class, Parallelism.class })
 	public CoreObject<T> filter(final F1Object2Bool<T> f, Option... options) {
-		final boolean invert = Options.$(options).invert();
-		final CoreObject<T> rval = map(new F1<T, T>() {
+		final Options options$ = Options.$(options);
+		final boolean invert = options$.invert();
+		final int size = size();
+		if (size == 0)
+			return this;
+
+		final int chunkSize = chunkSize(size, 256, options);
+		final int chunks = (size + chunkSize - 1) / chunkSize;
+		final boolean[][] kept = new boolean[chunks][];
+		final int[] offsets = new int[chunks + 1];
+
+		// First we decide for each element if we keep it and count the kept
+		// elements per chunk
+		mapChunks(size, chunkSize, Object.class, new Chunk<Object>() {
 			@Override
-			public T f(T x) {
-				final boolean result = f.f(x);
+			public Object f(int chunk, int from, int to) {
+				final boolean[] keep = new boolean[to - from];
+				int count = 0;
+
+				for (int i = from; i < to; i++) {
+					final T element = CoreObject.this.adapter.get(i);
+					if (element == null)
+						continue;
+					if (f.f(element) == invert)
+						continue;
+
+					keep[i - from] = true;
+					count++;
+				}
 
-				if ((!invert && result) || (invert == !result))
-					return x;
+				kept[chunk] = keep;
+				offsets[chunk + 1] = count;
+				return null;
+			}
+		}, options);
+
+		// The prefix sum tells where each chunk starts in the result, the
+		// first kept element determines its type
+		Class<?> type = null;
+		for (int c = 0; c < chunks; c++) {
+			if (type == null && offsets[c + 1] > 0) {
+				int i = 0;
+				while (!kept[c][i])
+					i++;
+				type = this.adapter.get(c * chunkSize + i).getClass();
+			}
+
+			offsets[c + 1] += offsets[c];
+		}
+
+		final T[] rval = (T[]) Array.newInstance(type == null ? this.adapter.clazz() : type, offsets[chunks]);
+		if (offsets[chunks] == 0)
+			return new CoreObject<T>(this.commonCore, rval);
+
+		// Then each chunk copies its kept elements into place
+		mapChunks(size, chunkSize, Object.class, new Chunk<Object>() {
+			@Override
+			public Object f(int chunk, int from, int to) {
+				final boolean[] keep = kept[chunk];
+				int dst = offsets[chunk];
+
+				for (int i = 0; i < keep.length; i++) {
+					if (keep[i])
+						rval[dst++] = CoreObject.this.adapter.get(from + i);
+				}
 
 				return null;
 			}
-		});
+		}, options);
 
-		return rval.compact();
+		return new CoreObject<T>(this.commonCore, rval);
 	}
 
 	/**
@@ -1335,11 +1485,14 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * @param f
 	 *            The reduce function. Takes two elements, returns one.
 	 * @param options
-	 *            Supports {@link MapType}.
+	 *            Supports {@link MapType}, {@link KillSwitch},
+	 *            {@link Deadline} and {@link Parallelism}. If the fold is
+	 *            stopped early, only the elements folded until then contribute
+	 *            to the result.
 	 * @return A CoreObject, containing at most a single element.
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	@SupportsOption(options = { MapType.class })
+	@SupportsOption(options = { MapType.class, KillSwitch.class, Deadline.class, Parallelism.class })
 	public CoreObject<T> fold(final F2ReduceObjects<T> f, Option... options) {
 
 		// In case we only have zero or one elements, don't do anything
@@ -1375,9 +1528,13 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		// Now do fold ...
 		fold(folder, options);
 
-		T[] target = (T[]) Array.newInstance(this.adapter.clazz(), 1); // Arrays.copyOf(this.t,
-																		// 1);
-		target[0] = (T) array.get(0);
+		// As in reduce() we use the type of the result, since f might return a
+		// subtype other than our own.
+		final T result = (T) array.get(0);
+		final Class<?> type = result != null ? result.getClass() : this.adapter.clazz();
+
+		T[] target = (T[]) Array.newInstance(type, 1);
+		target[0] = result;
 
 		// ... and return result.
 		return new CoreObject<T>(this.commonCore, target);
@@ -1814,7 +1971,8 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	}
 
 	/**
-	 * Returns a core intersected with another core.<br/>
+	 * Returns a core intersected with another core. The elements of the other
+	 * core are put into a hash set, so both cores are only passed once.<br/>
 	 * <br/>
 	 * 
 	 * Examples:
@@ -1823,43 +1981,38 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>$("y", "z")</code>.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. <br/>
 	 * <br/>
 	 * 
 	 * @param other
 	 *            The other core to intersect.
+	 * @param options
+	 *            Supports {@link Identity} to compare elements by identity
+	 *            and {@link Parallelism}.
 	 * @return Returns a core enclosing only objects present in this and the
 	 *         other core.
 	 */
-	public CoreObject<T> intersect(CoreObject<T> other) {
+	@SuppressWarnings("unchecked")
+	@SupportsOption(options = { Identity.class, Parallelism.class })
+	public CoreObject<T> intersect(CoreObject<T> other, Option... options) {
 		if (size() == 0)
 			return this;
 		if (other.size() == 0)
 			return other;
 
-		final T[] copy = this.adapter.array();
-
-		// Remove every element we in the other core
-		for (int i = 0; i < copy.length; i++) {
-			final T element = copy[i];
-			if (element == null)
-				continue;
-
-			boolean found = false;
+		final Options options$ = Options.$(options);
+		final Set<Object> keys = other.keyset(options$);
+		final T[] copy = (T[]) Array.newInstance(this.adapter.clazz(), size());
 
-			// Check if the copy contains the element
-			for (T x : other) {
-				if (x == null || !x.equals(element))
-					continue;
-				found = true;
-				break;
-			}
-
-			// If not in both, remove.
-			if (!found) {
-				copy[i] = null;
+		// Keep every element that is also in the other core
+		map(new Mapper<T, Object>(this) {
+			@Override
+			public void handle(int i) {
+				final T element = CoreObject.this.adapter.get(i);
+				if (element != null && keys.contains(options$.key(element)))
+					copy[i] = element;
 			}
-		}
+		}, options$.parallelism());
 
 		// Return a compacted core.
 		return new CoreObject<T>(this.commonCore, copy).compact();
@@ -1889,6 +2042,29 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		return intersect(new CoreObject(this.commonCore, other));
 	}
 
+	/**
+	 * Returns a {@link Lazy} chain for this core. Operations recorded on it are
+	 * not executed until <code>evaluate()</code> is called, which then runs
+	 * all of them fused in a single parallel <code>map()</code> pass without
+	 * intermediate arrays.<br/>
+	 * <br/>
+	 *
+	 * Examples:
+	 * <ul>
+	 * <li><code>$(list).lazy().map(f).filter(g).map(h).compact().evaluate()</code>
+	 * - Same as <code>$(list).map(f).filter(g).map(h).compact()</code>, but
+	 * touches each element only once.</li>
+	 * </ul>
+	 *
+	 * Single-threaded. <br/>
+	 * <br/>
+	 *
+	 * @return A new lazy chain starting with this core.
+	 */
+	public Lazy<T> lazy() {
+		return new Lazy<T>(this);
+	}
+
 	/**
 	 * Returns the wrapped collection as a list.<br/>
 	 * <br/>
@@ -1950,18 +2126,26 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * even drop below the performance of <code>forEach</code>.<br/>
 	 * <br/>
 	 * 
+	 * If a {@link KillSwitch} is activated or a {@link Deadline} passes while
+	 * mapping, <code>map</code> stops and returns the partially filled core,
+	 * unprocessed elements are <code>null</code>. Pass a {@link Completion} to
+	 * find out which elements have been processed. Pass {@link MapStatistics} to
+	 * find out how the elements were distributed among the threads.<br/>
+	 * <br/>
 	 * 
 	 * @param <R>
 	 *            Return type.
 	 * @param f
 	 *            Mapper function, must be thread-safe.
 	 * @param _options
-	 *            Relevant options: {@link MapType}.
+	 *            Relevant options: {@link MapType}, {@link KillSwitch},
+	 *            {@link Deadline}, {@link Completion}, {@link Parallelism} and
+	 *            {@link MapStatistics}.
 	 * 
 	 * @return A CoreObject containing the mapped elements in a stable order.
 	 */
 	@SuppressWarnings("unchecked")
-	@SupportsOption(options = { MapType.class })
+	@SupportsOption(options = { MapType.class, KillSwitch.class, Deadline.class, Completion.class, Parallelism.class, MapStatistics.class })
 	public <R> CoreObject<R> map(final F1<T, R> f, Option... _options) {
 
 		// Map what we got
@@ -1972,6 +2156,91 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		return new CoreObject<R>(this.commonCore, mapper.getFinalReturnArray());
 	}
 
+	/**
+	 * Maps the core's content in batches. Instead of a single element
+	 * <code>f</code> receives a contiguous slice of the core (including
+	 * <code>null</code> elements) and returns the results for that slice in the
+	 * same order. The slice size is chosen by jCores, the slices are processed
+	 * in parallel just as in <code>map()</code>. This is useful when
+	 * <code>f</code> is very cheap per element, or when it has some setup cost
+	 * (a prepared statement, a digest instance, ...) that should be paid only
+	 * once per batch.<br/>
+	 * <br/>
+	 * 
+	 * Examples:
+	 * <ul>
+	 * <li><code>$(files).mapBatch(hashAll)</code> - Given <code>hashAll</code>
+	 * creates a single digest instance and hashes all files of its slice, this
+	 * would hash all files in parallel with one digest per batch.</li>
+	 * </ul>
+	 * 
+	 * Multi-threaded.<br/>
+	 * <br/>
+	 * 
+	 * @param <R>
+	 *            Return type.
+	 * @param f
+	 *            Batch function, must be thread-safe. The returned array should
+	 *            be as long as the passed slice, missing results will be
+	 *            <code>null</code>. The passed array can be reused for the
+	 *            result.
+	 * @param _options
+	 *            Relevant options: {@link MapType} and {@link Parallelism}.
+	 * 
+	 * @return A CoreObject containing the mapped elements in a stable order.
+	 */
+	@SuppressWarnings("unchecked")
+	@SupportsOption(options = { MapType.class, Parallelism.class })
+	public <R> CoreObject<R> mapBatch(final F1<T[], R[]> f, Option... _options) {
+		final int size = size();
+		if (size == 0)
+			return new CoreObject<R>(this.commonCore, (R[]) new Object[0]);
+
+		final int batchSize = chunkSize(size, 64, _options);
+		final Class<?> clazz = this.adapter.clazz();
+		final T[] backing = this.adapter instanceof ArrayAdapter ? this.adapter.unsafearray() : null;
+
+		// Process each slice
+		final Object[] results = mapChunks(size, batchSize, Object.class, new Chunk<Object>() {
+			@Override
+			public Object f(int batch, int from, int to) {
+				final T[] slice = (T[]) Array.newInstance(clazz, to - from);
+
+				if (backing != null) {
+					System.arraycopy(backing, from, slice, 0, to - from);
+				} else {
+					for (int i = from; i < to; i++) {
+						slice[i - from] = CoreObject.this.adapter.get(i);
+					}
+				}
+
+				return f.f(slice);
+			}
+		}, _options);
+
+		// Determine the target type, either given or from the first result
+		Class<?> type = new Mapper.MapOptions(_options).type;
+		for (int i = 0; type == null && i < results.length; i++) {
+			final Object result = results[i];
+			if (result != null)
+				type = result.getClass().getComponentType();
+		}
+
+		// And join all results
+		final R[] rval = (R[]) Array.newInstance(type == null ? Object.class : type, size);
+		for (int i = 0; i < results.length; i++) {
+			final Object result = results[i];
+			if (result == null)
+				continue;
+
+			final int from = i * batchSize;
+			final int length = Math.min(Array.getLength(result), Math.min(batchSize, size - from));
+			System.arraycopy(result, 0, rval, from, length);
+		}
+
+		return new CoreObject<R>(this.commonCore, rval);
+	}
+
 	/**
 	 * Prints all strings to the console. Almost the same as
 	 * <code>string().print()</code>, except that this method returns a
@@ -2131,39 +2400,66 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * simple operations and <code>fold()</code> for very complex operations.<br/>
 	 * <br/>
 	 * 
+	 * If <code>f</code> is associative you can pass {@link Associative}. The
+	 * core is then split into contiguous chunks which are reduced in parallel,
+	 * and the partial results are reduced again from left to right.<br/>
+	 * <br/>
+	 * 
 	 * Examples:
 	 * <ul>
 	 * <li><code>$("a", "b", null, "c", "d").reduce(fjoin)</code> - When
 	 * <code>fjoin</code> joins the left and right String the resulting core
 	 * will be <code>$("abcd")</code>.</li>
+	 * <li><code>$(numbers).reduce(fadd, Associative.DO)</code> - Adds all
+	 * numbers, using several threads for large cores.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded.<br/>
+	 * Single-threaded, multi-threaded with {@link Associative}.<br/>
 	 * <br/>
 	 * 
 	 * @param f
 	 *            The reduce function. Takes two elements, returns one.
 	 * @param options
-	 *            Relevant options: {@link MapType}.
+	 *            Relevant options: {@link MapType}, {@link Associative} and
+	 *            {@link Parallelism}.
 	 * @return A CoreObject, containing at most a single element.
 	 */
 	@SuppressWarnings("unchecked")
-	@SupportsOption(options = { MapType.class })
+	@SupportsOption(options = { MapType.class, Associative.class, Parallelism.class })
 	public CoreObject<T> reduce(final F2ReduceObjects<T> f, Option... options) {
+		final int size = size();
 		T stack = null;
 
-		for (T current : this) {
-			// Nothing to do for null elements
-			if (current == null)
-				continue;
+		// For associative functions on larger cores we reduce chunks in
+		// parallel and only reduce the partial results here.
+		if (Options.$(options).associative()) {
+			// Partials might have different types, so we store them as objects
+			final Object[] partials = mapChunks(size, chunkSize(size, 256), Object.class, new Chunk<Object>() {
+				@Override
+				public Object f(int chunk, int from, int to) {
+					return reduce(f, from, to);
+				}
+			}, options);
 
-			// Init stack with first element found
-			if (stack == null) {
-				stack = current;
-				continue;
+			for (Object partial : partials) {
+				if (partial == null)
+					continue;
+				stack = stack == null ? (T) partial : f.f(stack, (T) partial);
 			}
+		} else {
+			for (T current : this) {
+				// Nothing to do for null elements
+				if (current == null)
+					continue;
 
-			stack = f.f(stack, current);
+				// Init stack with first element found
+				if (stack == null) {
+					stack = current;
+					continue;
+				}
+
+				stack = f.f(stack, current);
+			}
 		}
 
 		// We have to use the stack, because we otherwise we might
@@ -2174,6 +2470,33 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		return new CoreObject<T>(this.commonCore, type, stack);
 	}
 
+	/**
+	 * Reduces the elements from <code>from</code> (inclusive) to
+	 * <code>to</code> (exclusive) from left to right, ignoring
+	 * <code>null</code> elements.
+	 * 
+	 * @param f
+	 *            The reduce function.
+	 * @param from
+	 *            The first index.
+	 * @param to
+	 *            The last index (exclusive).
+	 * @return The reduced value, or <code>null</code> if there was no element.
+	 */
+	private T reduce(final F2ReduceObjects<T> f, int from, int to) {
+		T stack = null;
+
+		for (int i = from; i < to; i++) {
+			final T current = this.adapter.get(i);
+			if (current == null)
+				continue;
+
+			stack = stack == null ? current : f.f(stack, current);
+		}
+
+		return stack;
+	}
+
 	/**
 	 * Returns a Core with the element order reversed.<br/>
 	 * <br/>
@@ -2240,6 +2563,9 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>$("c", "d")</code>.</li>
 	 * </ul>
 	 * 
+	 * Slices of array based cores are views and do not copy the elements.<br/>
+	 * <br/>
+	 * 
 	 * Single-threaded. <br/>
 	 * <br/>
 	 * 
@@ -2284,6 +2610,10 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 			l -= i + l - size();
 		}
 
+		// Arrays (and chains of them) are sliced without copying
+		if (this.adapter instanceof ArrayAdapter || this.adapter instanceof CompositeAdapter)
+			return new CoreObject<T>(this.commonCore, CompositeAdapter.view(this.adapter, i, i + l));
+
 		// Check if the result of the slice is actually an adapter, in that
 		// case, we use it directly.
 		final List<T> slice = this.adapter.slice(i, i + l);
@@ -2334,7 +2664,8 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	}
 
 	/**
-	 * Returns a new, sorted core using the given {@link Comparator}.<br/>
+	 * Returns a new, sorted core using the given {@link Comparator}. Empty
+	 * slots (<code>null</code> elements) are moved to the end.<br/>
 	 * <br/>
 	 * 
 	 * Examples:
@@ -2343,29 +2674,25 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * specified by <code>s</code>.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. <br/>
 	 * <br/>
 	 * 
 	 * @param c
-	 *            Comparator to use. Caution, <code>c</code> will be called with
-	 *            <code>null</code> values for non-existing elements,
-	 *            <code>compact()</code> the core before if you don't want this
-	 *            behavior.
+	 *            Comparator to use. It will never be called with
+	 *            <code>null</code> values.
 	 * @return A CoreObject with sorted entries.
 	 */
 	public CoreObject<T> sort(Comparator<T> c) {
 		if (size() == 0)
 			return this;
 
-		final T[] copyOf = this.adapter.array();
-		Arrays.sort(copyOf, c);
-
-		return new CoreObject<T>(this.commonCore, copyOf);
+		return new CoreObject<T>(this.commonCore, sorted(c));
 	}
 
 	/**
-	 * Returns a new, sorted core. If the elements of this core are not sortable
-	 * (i.e, implementing {@link Comparable}), simply this core will be returned
+	 * Returns a new, sorted core. Empty slots (<code>null</code> elements) are
+	 * moved to the end. If the elements of this core are not sortable (i.e,
+	 * implementing {@link Comparable}), simply this core will be returned
 	 * again.<br/>
 	 * <br/>
 	 * 
@@ -2375,7 +2702,7 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>$("a", "b", "c")</code>.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. <br/>
 	 * <br/>
 	 * 
 	 * @return A CoreObject with sorted entries.
@@ -2384,24 +2711,51 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		if (size() == 0)
 			return this;
 
-		// TODO: Can't we be faster if we do the sort on our own?
-		final T[] copyOf = this.adapter.array();
-
 		try {
-			Arrays.sort(copyOf);
+			return new CoreObject<T>(this.commonCore, sorted(null));
 		} catch (ClassCastException e) {
 			this.commonCore.report(MessageType.EXCEPTION,
 					"Unable to sort core, elements not comparable: "
 							+ fingerprint(true));
 			return this;
-		} catch (NullPointerException e) {
-			this.commonCore.report(MessageType.PERFORMANCE,
-					"Make sure cores are compact() before sorting them: "
-							+ fingerprint(true));
-			return compact().sort();
 		}
+	}
+
+	/**
+	 * Returns a sorted copy of our elements with all <code>null</code> elements
+	 * moved to the end. Larger cores are merge sorted in parallel.
+	 * 
+	 * @param c
+	 *            The comparator to use, or <code>null</code> for the natural
+	 *            order.
+	 * @return The sorted array.
+	 */
+	@SuppressWarnings("unchecked")
+	private T[] sorted(Comparator<T> c) {
+		final int size = size();
+		final T[] copy = (T[]) Array.newInstance(this.adapter.clazz(), size);
 
-		return new CoreObject<T>(this.commonCore, copyOf);
+		// Move all elements to the front, the nulls stay at the end
+		int n = 0;
+		final ListIterator<T> iterator = this.adapter.iterator();
+		while (iterator.hasNext()) {
+			final T next = iterator.next();
+			if (next != null)
+				copy[n++] = next;
+		}
+
+		// Sort small cores directly, and split larger ones among all CPUs
+		final int numCPUs = this.commonCore.profileInformation().numCPUs;
+		final int grain = Math.max(n / (4 * numCPUs), 8192);
+		if (numCPUs < 2 || n <= grain) {
+			Arrays.sort(copy, 0, n, c);
+			return copy;
+		}
+
+		final T[] buffer = (T[]) Array.newInstance(copy.getClass().getComponentType(), n);
+		this.commonCore.executor().getForkJoinPool().invoke(new SortTask<T>(copy, buffer, c, 0, n, grain));
+
+		return copy;
 	}
 
 	/**
@@ -2430,7 +2784,8 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 
 	/**
 	 * Returns a core containing all elements of this core that are not in the
-	 * passed core.<br/>
+	 * passed core. The elements of the other core are put into a hash set, so
+	 * both cores are only passed once.<br/>
 	 * <br/>
 	 * 
 	 * Examples:
@@ -2439,35 +2794,37 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>$("a", "c")</code>.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. <br/>
 	 * <br/>
 	 * 
 	 * @param toSubtract
 	 *            The core to subtract from this core.
+	 * @param options
+	 *            Supports {@link Identity} to compare elements by identity
+	 *            and {@link Parallelism}.
 	 * 
 	 * @return A CoreObject containing all objects of this core that are not in
 	 *         the other core.
 	 */
-	public CoreObject<T> subtract(CoreObject<T> toSubtract) {
+	@SuppressWarnings("unchecked")
+	@SupportsOption(options = { Identity.class, Parallelism.class })
+	public CoreObject<T> subtract(CoreObject<T> toSubtract, Option... options) {
 		if (size() == 0 || toSubtract.size() == 0)
 			return this;
 
-		final T[] copy = this.adapter.array();
-
-		// Remove every element we in the other core
-		for (int i = 0; i < toSubtract.size(); i++) {
-			final T element = toSubtract.get(i);
-			if (element == null)
-				continue;
+		final Options options$ = Options.$(options);
+		final Set<Object> keys = toSubtract.keyset(options$);
+		final T[] copy = (T[]) Array.newInstance(this.adapter.clazz(), size());
 
-			// Check if the copy contains the element
-			for (int j = 0; j < copy.length; j++) {
-				final T our = copy[j];
-				if (our == null || !our.equals(element))
-					continue;
-				copy[j] = null;
+		// Keep every element we don't find in the other core
+		map(new Mapper<T, Object>(this) {
+			@Override
+			public void handle(int i) {
+				final T element = CoreObject.this.adapter.get(i);
+				if (element != null && !keys.contains(options$.key(element)))
+					copy[i] = element;
 			}
-		}
+		}, options$.parallelism());
 
 		return new CoreObject<T>(this.commonCore, copy);
 	}
@@ -2499,7 +2856,9 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 
 	/**
 	 * Returns a core containing only unique objects, i.e., object mutually un-
-	 * <code>equal()</code>.<br/>
+	 * <code>equal()</code>. For each object its first occurrence is kept. The
+	 * first index of each object is collected in a hash map, so the core is
+	 * only passed twice.<br/>
 	 * <br/>
 	 * 
 	 * Examples:
@@ -2508,33 +2867,53 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	 * <code>$("a", "c", "b")</code>.</li>
 	 * </ul>
 	 * 
-	 * Single-threaded. <br/>
+	 * Multi-threaded. <br/>
 	 * <br/>
 	 * 
+	 * @param options
+	 *            Supports {@link Identity} to compare elements by identity
+	 *            and {@link Parallelism}.
+	 * 
 	 * @return A CoreObject containing only unique, non-null objects.
 	 */
-	public CoreObject<T> unique() {
+	@SuppressWarnings("unchecked")
+	@SupportsOption(options = { Identity.class, Parallelism.class })
+	public CoreObject<T> unique(Option... options) {
 		if (size() == 0)
 			return this;
 
-		final T[] copy = this.adapter.array();
+		final Options options$ = Options.$(options);
+		final ConcurrentHashMap<Object, Integer> first = new ConcurrentHashMap<Object, Integer>(size());
 
-		// Now check for each element
-		for (int i = 1; i < copy.length; i++) {
-			// If it is null, no nothing
-			if (copy[i] == null)
-				continue;
+		// Remember the first index of each element
+		map(new Mapper<T, Object>(this) {
+			@SuppressWarnings("boxing")
+			@Override
+			public void handle(int i) {
+				final T element = CoreObject.this.adapter.get(i);
+				if (element == null)
+					return;
 
-			// Check each previous element
-			for (int j = 0; j < i; j++) {
-				// If the current element is equal to a previous element,
-				// this element can be nulled
-				if (copy[i].equals(copy[j])) {
-					copy[i] = null;
-					break;
+				final Object key = options$.key(element);
+				Integer index = first.putIfAbsent(key, i);
+
+				// Another thread might have stored a later occurrence before us
+				while (index != null && index > i && !first.replace(key, index, i)) {
+					index = first.get(key);
 				}
 			}
-		}
+		}, options$.parallelism());
+
+		// And keep each element only at that index
+		final T[] copy = (T[]) Array.newInstance(this.adapter.clazz(), size());
+		map(new Mapper<T, Object>(this) {
+			@Override
+			public void handle(int i) {
+				final T element = CoreObject.this.adapter.get(i);
+				if (element != null && first.get(options$.key(element)).intValue() == i)
+					copy[i] = element;
+			}
+		}, options$.parallelism());
 
 		// Return the new, unique core.
 		return new CoreObject<T>(this.commonCore, copy).compact();
@@ -2594,6 +2973,28 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		return this.adapter;
 	}
 
+	/**
+	 * Returns a concurrent set with the keys of all non-null elements.
+	 * 
+	 * @param options$
+	 *            The options specifying how elements are compared.
+	 * @return A set of all keys.
+	 */
+	private Set<Object> keyset(final Options options$) {
+		final Set<Object> keys = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>(size()));
+
+		map(new Mapper<T, Object>(this) {
+			@Override
+			public void handle(int i) {
+				final T element = CoreObject.this.adapter.get(i);
+				if (element != null)
+					keys.add(options$.key(element));
+			}
+		}, options$.parallelism());
+
+		return keys;
+	}
+
 	/**
 	 * Converts an index to an offset.
 	 * 
@@ -2619,6 +3020,14 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 	@SuppressWarnings("rawtypes")
 	protected final <R> Mapper mapper(final F1<T, R> f, final Option... options) {
 		return new Mapper<T, R>(this, options) {
+			@Override
+			public Class<?>[] functions() {
+				// Fused lazy chains cost what their stages cost together
+				if (f instanceof Lazy.Chain)
+					return ((Lazy.Chain) f).functions();
+				return new Class<?>[] { f.getClass() };
+			}
+
 			@SuppressWarnings("unchecked")
 			@Override
 			public void handle(int i) {
@@ -2660,15 +3069,23 @@ public class CoreObject<T> extends Core implements Iterable<T> {
 		return this.adapter.iterator();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Iterable#forEach(java.util.function.Consumer)
+	 */
 	@Override
 	public void forEach(Consumer<? super T> action) {
-		// TODO Auto-generated method stub
-
+		this.adapter.forEach(action);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Iterable#spliterator()
+	 */
 	@Override
 	public Spliterator<T> spliterator() {
-		// TODO Auto-generated method stub
-		return null;
+		return this.adapter.spliterator();
 	}
 }
@@ -44,9 +44,11 @@ import java.util.regex.Pattern;
 
 import net.jcores.jre.CommonCore;
 import net.jcores.jre.CoreKeeper;
+import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.cores.adapter.AbstractAdapter;
 import net.jcores.jre.interfaces.functions.F1;
 import net.jcores.jre.interfaces.functions.F1Object2Bool;
+import net.jcores.jre.options.IO;
 import net.jcores.jre.options.MessageType;
 import net.jcores.jre.options.Option;
 import net.jcores.jre.options.RegEx;
@@ -343,10 +345,11 @@ public class CoreString extends CoreObject<String> {
      * Multi-threaded.<br/>
      * <br/>
      * 
-     * @param options Not used at the moment.
+     * @param options Optional arguments, especially {@link IO}.
      * 
      * @return A CoreString with all the emitted output.
      */
+    @SupportsOption(options = { IO.class })
     public CoreString exec(Option ...options) {
         return new CoreString(this.commonCore, map(new F1<String, String>() {
             public String f(String x) {
@@ -364,7 +367,7 @@ public class CoreString extends CoreObject<String> {
                 
                 return null;
             }
-        }).adapter);
+        }, options).adapter);
     }
    
     
@@ -392,10 +395,11 @@ public class CoreString extends CoreObject<String> {
      * <br/>
      * 
      * @param command The command to execute, e.g., <code>"ls $1"</code>.
-     * @param options Not used at the moment.
+     * @param options Optional arguments, especially {@link IO}.
      *  
      * @return A CoreString with all the emitted output.
      */
+    @SupportsOption(options = { IO.class })
     public CoreString exec(final String command, Option ...options) {
         return new CoreString(this.commonCore, map(new F1<String, String>() {
             public String f(String x) {
@@ -414,7 +418,7 @@ public class CoreString extends CoreObject<String> {
                 
                 return null;
             }
-        }).adapter);
+        }, options).adapter);
     }
     
     /**
@@ -39,6 +39,7 @@ import net.jcores.jre.CoreKeeper;
 import net.jcores.jre.annotations.SupportsOption;
 import net.jcores.jre.cores.adapter.AbstractAdapter;
 import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.options.IO;
 import net.jcores.jre.options.MessageType;
 import net.jcores.jre.options.OnFailure;
 import net.jcores.jre.options.Option;
@@ -92,11 +93,11 @@ public class CoreURI extends CoreObject<URI> {
      * 
      * Multi-threaded.<br/>
      * <br/>
-     * @param options Optional arguments, especially {@link OnFailure}.
+     * @param options Optional arguments, especially {@link OnFailure} and {@link IO}.
      * 
      * @return A CoreInputStream object enclosing the opened input streams.
      */
-    @SupportsOption(options = {OnFailure.class})
+    @SupportsOption(options = {OnFailure.class, IO.class})
     public CoreInputStream input(Option ... options) {
         final Options options$ = Options.$(options);
 
@@ -116,7 +117,7 @@ public class CoreURI extends CoreObject<URI> {
 
                 return null;
             }
-        }).array(InputStream.class));
+        }, options).array(InputStream.class));
     }
     
     /**
@@ -132,9 +133,12 @@ public class CoreURI extends CoreObject<URI> {
      * Multi-threaded.<br/>
      * <br/>
      * 
+     * @param options Optional arguments, especially {@link IO}.
+     * 
      * @return A CoreFile object enclosing the files of all downloaded URIs.
      */
-    public CoreFile download() {
+    @SupportsOption(options = {IO.class})
+    public CoreFile download(Option... options) {
         final CommonCore cc = this.commonCore;
 
         return new CoreFile(this.commonCore, map(new F1<URI, File>() {
@@ -157,7 +161,7 @@ public class CoreURI extends CoreObject<URI> {
 
                 return null;
             }
-        }).array(File.class));
+        }, options).array(File.class));
     }
 
     /**
@@ -174,10 +178,12 @@ public class CoreURI extends CoreObject<URI> {
      * <br/>
      * 
      * @param path The directory to which the files will be downloaded.
+     * @param options Optional arguments, especially {@link IO}.
      * 
      * @return A CoreFile object enclosing the files of all downloaded URIs.
      */
-    public CoreFile download(final String path) {
+    @SupportsOption(options = {IO.class})
+    public CoreFile download(final String path, Option... options) {
         // Create output directory 
         new File(path).mkdirs();
         final CommonCore cc = this.commonCore;
@@ -203,7 +209,7 @@ public class CoreURI extends CoreObject<URI> {
 
                 return null;
             }
-        }).array(File.class));
+        }, options).array(File.class));
     }
 
 
@@ -30,6 +30,8 @@ package net.jcores.jre.cores.adapter;
 import java.io.Serializable;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 
 /**
@@ -46,6 +48,9 @@ public abstract class AbstractAdapter<T> implements Iterable<T>, Serializable {
     /** */
     private static final long serialVersionUID = 4367018268996427422L;
 
+    /** The class of our elements, once clazz() found one */
+    private transient volatile Class<?> clazz;
+
     /** 
      * Returns an array copy for this adapter.
      * 
@@ -92,20 +97,27 @@ public abstract class AbstractAdapter<T> implements Iterable<T>, Serializable {
     
     
     /**
-     * Returns the clazz of the adapter.
+     * Returns the clazz of the adapter. The class is cached once an element was found, 
+     * adapters without (non-null) elements are checked again on the next call, as the 
+     * collections of some adapters might still be filled.
      * 
      * @return Clazz
      */
     public Class<?> clazz() {
+        if (this.clazz != null) return this.clazz;
+        
+        Class<?> rval = Object.class;
         final ListIterator<T> it = iterator();
         
         while(it.hasNext()) {
             T next = it.next();
             if(next == null) continue;
-            return next.getClass();
+            rval = next.getClass();
+            break;
         }
         
-        return Object.class;
+        if (rval != Object.class) this.clazz = rval;
+        return rval;
     }
     
     /**
@@ -134,4 +146,30 @@ public abstract class AbstractAdapter<T> implements Iterable<T>, Serializable {
      * @return The slice.
      */
     public abstract List<T> slice(int start, int end);
+    
+    
+    /**
+     * Performs the action for each element, including <code>null</code> elements.
+     * 
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        final int size = size();
+        for (int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
+    }
+    
+    
+    /**
+     * Returns an ordered and sized spliterator that splits on index ranges, so cores can 
+     * be handed to (parallel) streams.
+     * 
+     * @return A spliterator over all elements.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new AdapterSpliterator<T>(this, 0, size());
+    }
 }
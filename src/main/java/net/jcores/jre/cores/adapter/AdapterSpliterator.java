@@ -0,0 +1,130 @@
+/*
+ * AdapterSpliterator.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A spliterator over an index range of an adapter. Splits always halve the
+ * remaining range, so the spliterator is sized, as are all its splits.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ * @param <T>
+ */
+public final class AdapterSpliterator<T> implements Spliterator<T> {
+	/** The adapter we access */
+	private final AbstractAdapter<T> adapter;
+
+	/** The next index to return */
+	private int index;
+
+	/** The last index we handle (exclusive) */
+	private final int end;
+
+	/**
+	 * Creates a spliterator over the given range.
+	 * 
+	 * @param adapter
+	 *            The adapter to access.
+	 * @param from
+	 *            The first index (inclusive).
+	 * @param to
+	 *            The last index (exclusive).
+	 */
+	public AdapterSpliterator(AbstractAdapter<T> adapter, int from, int to) {
+		this.adapter = adapter;
+		this.index = from;
+		this.end = to;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (this.index >= this.end)
+			return false;
+
+		action.accept(this.adapter.get(this.index++));
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Spliterator#forEachRemaining(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		final int end = this.end;
+		for (int i = this.index; i < end; i++) {
+			action.accept(this.adapter.get(i));
+		}
+		this.index = end;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Spliterator#trySplit()
+	 */
+	@Override
+	public Spliterator<T> trySplit() {
+		final int from = this.index;
+		final int mid = (from + this.end) >>> 1;
+		if (mid <= from)
+			return null;
+
+		this.index = mid;
+		return new AdapterSpliterator<T>(this.adapter, from, mid);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Spliterator#estimateSize()
+	 */
+	@Override
+	public long estimateSize() {
+		return this.end - this.index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.util.Spliterator#characteristics()
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED;
+	}
+}
@@ -32,6 +32,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 
 /**
@@ -156,8 +157,9 @@ public final class ArrayAdapter<T> extends AbstractAdapter<T> {
 
 			@Override
 			public void forEachRemaining(Consumer<? super T> action) {
-				// TODO Auto-generated method stub
-
+				while (this.i < ArrayAdapter.this.size) {
+					action.accept(ArrayAdapter.this.array[this.i++]);
+				}
 			}
 		};
 	}
@@ -227,15 +229,27 @@ public final class ArrayAdapter<T> extends AbstractAdapter<T> {
 		return Arrays.asList(Arrays.copyOfRange(this.array, start, end));
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#forEach(java.util.function.Consumer)
+	 */
 	@Override
 	public void forEach(Consumer<? super T> action) {
-		// TODO Auto-generated method stub
-
+		for (int i = 0; i < this.size; i++) {
+			action.accept(this.array[i]);
+		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#spliterator()
+	 */
 	@Override
 	public Spliterator<T> spliterator() {
-		// TODO Auto-generated method stub
-		return null;
+		if (this.array == null)
+			return Spliterators.emptySpliterator();
+		return Arrays.spliterator(this.array, 0, this.size);
 	}
 }
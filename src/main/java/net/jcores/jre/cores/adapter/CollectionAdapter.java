@@ -33,7 +33,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Spliterator;
+import java.util.RandomAccess;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,6 +41,7 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Wraps arbitrary collections with on-demand element access and caching.
@@ -57,13 +58,22 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 	/** */
 	private static final long serialVersionUID = 7010286694628298017L;
 
+	/** Elements are taken from the iterator in blocks of this size */
+	static final int BLOCK_SIZE = 4096;
+
+	/** The wrapped list if it has random access, then we need no iterator */
+	List<I> list;
+
 	/** Our primary collection iterator */
 	Iterator<I> iterator;
 
 	/** Our cache array */
 	AtomicReferenceArray<O> array;
 
-	/** Specifies up to which index we have elements in our array cache */
+	/**
+	 * Specifies up to which index we have elements in our array cache (the
+	 * high-water mark, only raised after a whole block has been stored)
+	 */
 	AtomicInteger inCache;
 
 	/** Locks access to the collection's iterator */
@@ -75,13 +85,21 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 	/** The inclusive end index we handle */
 	final int end;
 
+	@SuppressWarnings("unchecked")
 	public CollectionAdapter(Collection<I> collection) {
 		this.inCache = new AtomicInteger(-1);
 		this.collectionLock = new ReentrantLock();
-		this.iterator = collection.iterator();
 		this.array = new AtomicReferenceArray<O>(collection.size());
 		this.start = 0;
 		this.end = collection.size() - 1;
+
+		// Random access lists can be accessed directly by all threads, for all
+		// other collections we have to go through the iterator.
+		if (collection instanceof List && collection instanceof RandomAccess) {
+			this.list = (List<I>) collection;
+		} else {
+			this.iterator = collection.iterator();
+		}
 	}
 
 	private CollectionAdapter(int start, int end) {
@@ -123,6 +141,16 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 	}
 
 	private final O _get(int i) {
+		final O cached = this.array.get(i);
+		if (cached != null || this.list == null)
+			return cached;
+
+		// Convert the list element. If another thread was faster we use its
+		// result, so every element is only converted once
+		final O converted = converter(this.list.get(i));
+		if (converted == null || this.array.compareAndSet(i, null, converted))
+			return converted;
+
 		return this.array.get(i);
 	}
 
@@ -182,8 +210,9 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 
 			@Override
 			public void forEachRemaining(Consumer<? super O> action) {
-				// TODO Auto-generated method stub
-
+				while (hasNext()) {
+					action.accept(next());
+				}
 			}
 		};
 	}
@@ -227,6 +256,7 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 		final CollectionAdapter<I, O> adapter = new CollectionAdapter<I, O>(
 				this.start + a, this.start + a + (b - a) - 1);
 		adapter.array = this.array;
+		adapter.list = this.list;
 		adapter.collectionLock = this.collectionLock;
 		adapter.inCache = this.inCache;
 		adapter.iterator = this.iterator;
@@ -242,35 +272,39 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 	}
 
 	/**
-	 * Cache the collection until the given element
+	 * Cache the collection until the given element. Random access lists need no
+	 * caching, all other collections are read from the iterator in whole
+	 * blocks, so that most requests can be answered by checking the high-water
+	 * mark without taking the lock.
 	 * 
 	 * @param request
 	 */
 	protected void cacheUntil(int request) {
 		// When the cached value already exceeds the limit we dont have to do
 		// anything
-		if (this.inCache.intValue() >= request)
+		if (this.list != null || this.inCache.get() >= request)
 			return;
 
 		this.collectionLock.lock();
 		try {
-			// System.out.println(Thread.currentThread() + ": " + this.inCache +
-			// " -> " + request);
 			// Iterator might have been gone due to another thread that just
 			// exited the lock while we entered
 			if (this.iterator == null)
 				return;
 
-			while (this.iterator.hasNext()) {
-				int i = this.inCache.get();
-				this.array.set(i + 1, converter(this.iterator.next()));
-				this.inCache.set(i + 1);
-				if (i > request)
-					break;
+			final int cached = this.inCache.get();
+			final int target = Math.min(Math.max(request, cached + BLOCK_SIZE), this.array.length() - 1);
+
+			// Store the whole block before we publish it
+			int i = cached;
+			while (i < target && this.iterator.hasNext()) {
+				this.array.lazySet(++i, converter(this.iterator.next()));
 			}
 
+			this.inCache.set(i);
+
 			// Eventually dump the iterator to free up space
-			if (!this.iterator.hasNext()) {
+			if (i >= this.array.length() - 1 || !this.iterator.hasNext()) {
 				this.iterator = null;
 			}
 		} finally {
@@ -547,20 +581,12 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 
 	@Override
 	public Stream<O> stream() {
-		// TODO Auto-generated method stub
-		return null;
+		return StreamSupport.stream(spliterator(), false);
 	}
 
 	@Override
 	public Stream<O> parallelStream() {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public void forEach(Consumer<? super O> action) {
-		// TODO Auto-generated method stub
-
+		return StreamSupport.stream(spliterator(), true);
 	}
 
 	@Override
@@ -574,10 +600,4 @@ public class CollectionAdapter<I, O> extends AbstractAdapter<O> implements
 		// TODO Auto-generated method stub
 
 	}
-
-	@Override
-	public Spliterator<O> spliterator() {
-		// TODO Auto-generated method stub
-		return null;
-	}
 }
@@ -0,0 +1,461 @@
+/*
+ * CompositeAdapter.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Chains ranges of other adapters without copying their elements, so that adding
+ * cores and slicing arrays is cheap. An element is found with a binary search over
+ * the segments. The elements are only copied when an array is requested.<br/>
+ * <br/>
+ * 
+ * Adapters created by adding to a composite adapter share its segment arrays, as long 
+ * as nobody else added to it before, so that <code>acc = acc.add(batch)</code> does 
+ * not copy the segments either.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ * @param <T>
+ */
+public final class CompositeAdapter<T> extends AbstractAdapter<T> {
+	/** */
+	private static final long serialVersionUID = -2472093154302867911L;
+
+	/**
+	 * If the segments get smaller than this on average, we copy all of them into a
+	 * single array. Otherwise adding elements one by one would create a segment for
+	 * each of them.
+	 */
+	static final int MIN_SEGMENT = 32;
+
+	/**
+	 * Returns an adapter containing all elements of the first adapter, followed by
+	 * all elements of the second one. Composite adapters are flattened, so segments
+	 * never nest.
+	 * 
+	 * @param a
+	 *            The first adapter.
+	 * @param b
+	 *            The second adapter.
+	 * @param <T>
+	 *            The type.
+	 * @return An adapter over both adapters.
+	 */
+	public static <T> AbstractAdapter<T> concat(AbstractAdapter<T> a, AbstractAdapter<T> b) {
+		CompositeAdapter<T> rval = null;
+
+		// Try to append to the segments of the first adapter
+		if (a instanceof CompositeAdapter)
+			rval = ((CompositeAdapter<T>) a).append(b);
+
+		// Otherwise collect the segments of both
+		if (rval == null) {
+			final Builder<T> builder = new Builder<T>();
+			builder.add(a, 0, a.size());
+			builder.add(b, 0, b.size());
+			rval = builder.build();
+		}
+
+		if (rval.count > 1 && rval.count * MIN_SEGMENT > rval.size())
+			return new ArrayAdapter<T>(rval.array());
+
+		return rval;
+	}
+
+	/**
+	 * Returns an adapter over the given range of the given adapter, without copying
+	 * its elements.
+	 * 
+	 * @param adapter
+	 *            The adapter to view.
+	 * @param start
+	 *            The first index (inclusive).
+	 * @param end
+	 *            The last index (exclusive).
+	 * @param <T>
+	 *            The type.
+	 * @return An adapter over the range.
+	 */
+	public static <T> CompositeAdapter<T> view(AbstractAdapter<T> adapter, int start, int end) {
+		final Builder<T> builder = new Builder<T>();
+		builder.add(adapter, start, end);
+		return builder.build();
+	}
+
+	/** The adapters of all segments (might be longer than count) */
+	final AbstractAdapter<T>[] adapters;
+
+	/** The index in the adapter where each segment starts */
+	final int[] starts;
+
+	/** The index in this adapter where each segment starts, followed by the size */
+	final int[] offsets;
+
+	/** The number of segments we use */
+	final int count;
+
+	/** The number of segments used in the shared arrays by any adapter */
+	final AtomicInteger used;
+
+	/**
+	 * Creates a new adapter for the given segments, use the static methods instead.
+	 * 
+	 * @param adapters
+	 *            The adapters of the segments.
+	 * @param starts
+	 *            The start in each adapter.
+	 * @param offsets
+	 *            The offsets of the segments.
+	 * @param count
+	 *            The number of segments.
+	 * @param used
+	 *            The number of segments used in the arrays.
+	 */
+	CompositeAdapter(AbstractAdapter<T>[] adapters, int[] starts, int[] offsets, int count,
+			AtomicInteger used) {
+		this.adapters = adapters;
+		this.starts = starts;
+		this.offsets = offsets;
+		this.count = count;
+		this.used = used;
+	}
+
+	/**
+	 * Appends the segments of the given adapter to our arrays, if they have space
+	 * left and nobody appended to them before.
+	 * 
+	 * @param adapter
+	 *            The adapter to append.
+	 * @return The new adapter, or <code>null</code> if we have to copy.
+	 */
+	CompositeAdapter<T> append(AbstractAdapter<T> adapter) {
+		final CompositeAdapter<T> other = adapter instanceof CompositeAdapter ? (CompositeAdapter<T>) adapter : null;
+		final int n = other == null ? 1 : other.count;
+		final int count = this.count + n;
+
+		if (count > this.adapters.length)
+			return null;
+		if (!this.used.compareAndSet(this.count, count))
+			return null;
+
+		// The space behind our last segment is ours now
+		for (int s = this.count; s < count; s++) {
+			final int from = other == null ? 0 : other.starts[s - this.count];
+			final int length = other == null ? adapter.size() : other.offsets[s - this.count + 1] - other.offsets[s - this.count];
+
+			this.adapters[s] = other == null ? adapter : other.adapters[s - this.count];
+			this.starts[s] = from;
+			this.offsets[s + 1] = this.offsets[s] + length;
+		}
+
+		return new CompositeAdapter<T>(this.adapters, this.starts, this.offsets, count, this.used);
+	}
+
+	/**
+	 * Returns the segment containing the given index.
+	 * 
+	 * @param i
+	 *            The index.
+	 * @return The segment.
+	 */
+	int segment(int i) {
+		final int s = Arrays.binarySearch(this.offsets, 0, this.count, i);
+		return s >= 0 ? s : -s - 2;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#size()
+	 */
+	@Override
+	public int size() {
+		return this.offsets[this.count];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#get(int)
+	 */
+	@Override
+	public T get(int i) {
+		if (i < 0 || i >= size())
+			throw new ArrayIndexOutOfBoundsException(i);
+
+		final int s = segment(i);
+		return this.adapters[s].get(this.starts[s] + i - this.offsets[s]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#iterator()
+	 */
+	@Override
+	public ListIterator<T> iterator() {
+		return new ListIterator<T>() {
+			int i = 0;
+
+			/** The segment containing i (or the one before, when at its end) */
+			int s = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.i < size();
+			}
+
+			@Override
+			public T next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+
+				final CompositeAdapter<T> c = CompositeAdapter.this;
+				while (this.i >= c.offsets[this.s + 1])
+					this.s++;
+
+				return c.adapters[this.s].get(c.starts[this.s] + this.i++ - c.offsets[this.s]);
+			}
+
+			@Override
+			public boolean hasPrevious() {
+				return this.i > 0;
+			}
+
+			@Override
+			public T previous() {
+				if (!hasPrevious())
+					throw new NoSuchElementException();
+
+				final CompositeAdapter<T> c = CompositeAdapter.this;
+				this.i--;
+				while (this.i < c.offsets[this.s])
+					this.s--;
+
+				return c.adapters[this.s].get(c.starts[this.s] + this.i - c.offsets[this.s]);
+			}
+
+			@Override
+			public int nextIndex() {
+				return this.i;
+			}
+
+			@Override
+			public int previousIndex() {
+				return this.i - 1;
+			}
+
+			@Override
+			public void remove() {
+				//
+			}
+
+			@Override
+			public void set(T e) {
+				//
+			}
+
+			@Override
+			public void add(T e) {
+				//
+			}
+
+			@Override
+			public void forEachRemaining(Consumer<? super T> action) {
+				while (hasNext()) {
+					action.accept(next());
+				}
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#clazz()
+	 */
+	@Override
+	public Class<?> clazz() {
+		if (this.count == 0)
+			return Object.class;
+
+		return this.adapters[0].clazz();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#array(java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <N> N[] array(Class<N> in) {
+		final N[] rval = (N[]) Array.newInstance(in, size());
+
+		for (int s = 0; s < this.count; s++) {
+			final AbstractAdapter<T> adapter = this.adapters[s];
+			final int start = this.starts[s];
+			final int length = this.offsets[s + 1] - this.offsets[s];
+
+			// Arrays can be copied directly, everything else element by element
+			if (adapter instanceof ArrayAdapter) {
+				System.arraycopy(((ArrayAdapter<T>) adapter).array, start, rval, this.offsets[s], length);
+				continue;
+			}
+
+			for (int i = 0; i < length; i++) {
+				rval[this.offsets[s] + i] = (N) adapter.get(start + i);
+			}
+		}
+
+		return rval;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#unsafelist()
+	 */
+	@Override
+	public List<T> unsafelist() {
+		return Arrays.asList(array());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#slice(int, int)
+	 */
+	@Override
+	public List<T> slice(int start, int end) {
+		return view(this, start, end).unsafelist();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#forEach(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		for (int s = 0; s < this.count; s++) {
+			final AbstractAdapter<T> adapter = this.adapters[s];
+			final int end = this.starts[s] + this.offsets[s + 1] - this.offsets[s];
+
+			for (int i = this.starts[s]; i < end; i++) {
+				action.accept(adapter.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Collects segments for a new composite adapter.
+	 * 
+	 * @param <T>
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static final class Builder<T> {
+		/** The adapters of all segments */
+		AbstractAdapter<T>[] adapters = new AbstractAdapter[8];
+
+		/** The start of each segment in its adapter */
+		int[] starts = new int[8];
+
+		/** The offset of each segment, followed by the size */
+		int[] offsets = new int[9];
+
+		/** The number of segments */
+		int count = 0;
+
+		/**
+		 * Adds the given range of the given adapter. Ranges of composite adapters
+		 * are resolved to ranges of their segments.
+		 * 
+		 * @param adapter
+		 *            The adapter.
+		 * @param start
+		 *            The first index (inclusive).
+		 * @param end
+		 *            The last index (exclusive).
+		 */
+		void add(AbstractAdapter<T> adapter, int start, int end) {
+			if (start >= end)
+				return;
+
+			if (adapter instanceof CompositeAdapter) {
+				final CompositeAdapter<T> c = (CompositeAdapter<T>) adapter;
+				for (int s = c.segment(start); s < c.count && c.offsets[s] < end; s++) {
+					final int from = Math.max(start, c.offsets[s]) - c.offsets[s];
+					final int to = Math.min(end, c.offsets[s + 1]) - c.offsets[s];
+					add(c.adapters[s], c.starts[s] + from, c.starts[s] + to);
+				}
+				return;
+			}
+
+			if (this.count == this.adapters.length)
+				grow(2 * this.count);
+
+			this.adapters[this.count] = adapter;
+			this.starts[this.count] = start;
+			this.offsets[this.count + 1] = this.offsets[this.count] + end - start;
+			this.count++;
+		}
+
+		/**
+		 * Resizes the arrays to the given number of segments.
+		 * 
+		 * @param capacity
+		 *            The new capacity.
+		 */
+		void grow(int capacity) {
+			this.adapters = Arrays.copyOf(this.adapters, capacity);
+			this.starts = Arrays.copyOf(this.starts, capacity);
+			this.offsets = Arrays.copyOf(this.offsets, capacity + 1);
+		}
+
+		/**
+		 * Creates the adapter, leaving space to append as many segments as it has.
+		 * 
+		 * @return The adapter.
+		 */
+		CompositeAdapter<T> build() {
+			if (this.adapters.length < 2 * this.count)
+				grow(2 * this.count);
+
+			return new CompositeAdapter<T>(this.adapters, this.starts, this.offsets, this.count,
+					new AtomicInteger(this.count));
+		}
+	}
+}
@@ -31,7 +31,6 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Spliterator;
 import java.util.function.Consumer;
 
 /**
@@ -135,8 +134,7 @@ public final class EmptyAdapter<T> extends AbstractAdapter<T> {
 
 			@Override
 			public void forEachRemaining(Consumer<? super T> action) {
-				// TODO Auto-generated method stub
-
+				// Nothing to iterate
 			}
 		};
 	}
@@ -172,16 +170,4 @@ public final class EmptyAdapter<T> extends AbstractAdapter<T> {
 	public List<T> slice(int start, int end) {
 		return new ArrayList<T>();
 	}
-
-	@Override
-	public void forEach(Consumer<? super T> action) {
-		// TODO Auto-generated method stub
-
-	}
-
-	@Override
-	public Spliterator<T> spliterator() {
-		// TODO Auto-generated method stub
-		return null;
-	}
 }
@@ -0,0 +1,115 @@
+/*
+ * IntArrayAdapter.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+/**
+ * Adapts primitive int arrays without boxing them.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public final class IntArrayAdapter extends NumberAdapter {
+	/** */
+	private static final long serialVersionUID = -1180464312907754221L;
+
+	/** */
+	final int[] array;
+
+	public IntArrayAdapter(int... array) {
+		this.array = array == null ? new int[0] : array;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#size()
+	 */
+	@Override
+	public int size() {
+		return this.array.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#get(int)
+	 */
+	@Override
+	public Number get(int i) {
+		return Integer.valueOf(this.array[i]);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.NumberAdapter#d(int)
+	 */
+	@Override
+	public double d(int i) {
+		return (double) this.array[i];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.NumberAdapter#l(int)
+	 */
+	@Override
+	public long l(int i) {
+		return this.array[i];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.NumberAdapter#i(int)
+	 */
+	@Override
+	public int i(int i) {
+		return this.array[i];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#clazz()
+	 */
+	@Override
+	public Class<?> clazz() {
+		return Integer.class;
+	}
+
+	/**
+	 * Returns the wrapped array. Do not change it!
+	 * 
+	 * @return The wrapped array.
+	 */
+	public int[] ints() {
+		return this.array;
+	}
+}
@@ -0,0 +1,318 @@
+/*
+ * LineAdapter.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+import java.io.ObjectStreamException;
+import java.lang.reflect.Array;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Adapts the lines of a (memory mapped) file. Only a sparse index of the line breaks
+ * is kept in memory, every {@link #STRIDE}th break per chunk. Each line is located and 
+ * decoded from the file when it is requested, so files larger than the heap can be 
+ * processed.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public final class LineAdapter extends AbstractAdapter<String> {
+	/** */
+	private static final long serialVersionUID = 2981739203598212041L;
+
+	/** The charset of the files */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** Every how many line breaks a position is stored in the index */
+	public static final int STRIDE = 64;
+
+	/** The size of each chunk, except the last one */
+	private final int chunkSize;
+
+	/** The chunks of the file, all but the last one are chunkSize long */
+	private final transient ByteBuffer[] chunks;
+
+	/** The index of each chunk, as returned by {@link #index(ByteBuffer)} */
+	private final int[][] index;
+
+	/** The number of '\n' before each chunk, with the total number as last entry */
+	private final long[] before;
+
+	/** The length of the file */
+	private final long length;
+
+	/** The number of lines */
+	private final int size;
+
+	/** The line each thread will likely request next, and where it starts */
+	private final transient ThreadLocal<long[]> cursor = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[] { -1, 0 };
+		}
+	};
+
+	/**
+	 * Creates a new line adapter.
+	 * 
+	 * @param chunkSize
+	 *            The size of each chunk, except the last one.
+	 * @param chunks
+	 *            The chunks of the file.
+	 * @param index
+	 *            The index of each chunk, see {@link #index(ByteBuffer)}.
+	 * @param length
+	 *            The length of the file.
+	 * @throws IllegalArgumentException
+	 *             If the file has more than <code>Integer.MAX_VALUE</code> lines.
+	 */
+	public LineAdapter(int chunkSize, ByteBuffer[] chunks, int[][] index, long length) {
+		this.chunkSize = chunkSize;
+		this.chunks = chunks;
+		this.index = index;
+		this.length = length;
+		this.before = new long[chunks.length + 1];
+
+		for (int c = 0; c < chunks.length; c++) {
+			this.before[c + 1] = this.before[c] + index[c][0];
+		}
+
+		// The last line does not need to end with a break
+		final long n = this.before[chunks.length];
+		final long lines = length > 0 && (n == 0 || position(n - 1) != length - 1) ? n + 1 : n;
+
+		if (lines > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many lines (" + lines + "), at most " + Integer.MAX_VALUE + " are supported.");
+
+		this.size = (int) lines;
+	}
+
+	/**
+	 * Indexes the given chunk. The first entry of the result is the number of '\n' in the 
+	 * chunk, followed by the position of every {@link #STRIDE}th of them, starting with the 
+	 * first.
+	 * 
+	 * @param chunk
+	 *            The chunk to index.
+	 * @return The index of the chunk.
+	 */
+	public static int[] index(ByteBuffer chunk) {
+		final int limit = chunk.limit();
+
+		int[] rval = new int[1024];
+		int found = 0;
+		int stored = 1;
+
+		for (int i = 0; i < limit; i++) {
+			if (chunk.get(i) != '\n') continue;
+			if (found++ % STRIDE != 0) continue;
+			if (stored == rval.length) rval = Arrays.copyOf(rval, 2 * stored);
+			rval[stored++] = i;
+		}
+
+		rval[0] = found;
+		return Arrays.copyOf(rval, stored);
+	}
+
+	/**
+	 * Returns the position of the given line break in the file.
+	 * 
+	 * @param i
+	 *            The number of the line break.
+	 * @return Its position.
+	 */
+	private long position(long i) {
+		int c = Arrays.binarySearch(this.before, i);
+
+		// Empty chunks share their entry with the next one
+		if (c >= 0)
+			while (this.before[c + 1] == i)
+				c++;
+		else
+			c = -c - 2;
+
+		// Start at the closest indexed break and scan for the rest
+		final int j = (int) (i - this.before[c]);
+		final ByteBuffer chunk = this.chunks[c];
+		int p = this.index[c][1 + j / STRIDE];
+
+		for (int k = j % STRIDE; k > 0; k--) {
+			while (chunk.get(++p) != '\n');
+		}
+
+		return (long) c * this.chunkSize + p;
+	}
+
+	/**
+	 * Returns the position of the first '\n' at or after the given position, or the
+	 * length of the file if there is none.
+	 * 
+	 * @param p
+	 *            The position to start at.
+	 * @return The position of the next line break.
+	 */
+	private long next(long p) {
+		for (int c = (int) (p / this.chunkSize); c < this.chunks.length; c++) {
+			final ByteBuffer chunk = this.chunks[c];
+			final int limit = chunk.limit();
+
+			for (int i = (int) (p - (long) c * this.chunkSize); i < limit; i++) {
+				if (chunk.get(i) == '\n') return (long) c * this.chunkSize + i;
+			}
+
+			p = (long) (c + 1) * this.chunkSize;
+		}
+
+		return this.length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#get(int)
+	 */
+	@Override
+	public String get(int i) {
+		if (i < 0 || i >= this.size)
+			throw new ArrayIndexOutOfBoundsException(i);
+
+		// Sequential requests continue where the last line ended
+		final long[] cursor = this.cursor.get();
+		final long start = cursor[0] == i ? cursor[1] : i == 0 ? 0 : position(i - 1) + 1;
+		final long end = next(start);
+
+		cursor[0] = i + 1;
+		cursor[1] = end + 1;
+
+		// Copy the bytes, lines might span several chunks
+		final byte[] bytes = new byte[(int) (end - start)];
+		for (long p = start; p < end;) {
+			final ByteBuffer chunk = this.chunks[(int) (p / this.chunkSize)].duplicate();
+			final int offset = (int) (p % this.chunkSize);
+			final int n = (int) Math.min(end - p, this.chunkSize - offset);
+
+			((Buffer) chunk).position(offset);
+			chunk.get(bytes, (int) (p - start), n);
+
+			p += n;
+		}
+
+		// Drop the '\r' of Windows line breaks
+		int n = bytes.length;
+		if (n > 0 && bytes[n - 1] == '\r')
+			n--;
+
+		return new String(bytes, 0, n, UTF8);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#iterator()
+	 */
+	@Override
+	public ListIterator<String> iterator() {
+		return unsafelist().listIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#clazz()
+	 */
+	@Override
+	public Class<?> clazz() {
+		return String.class;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#array(java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <N> N[] array(Class<N> in) {
+		return unsafelist().toArray((N[]) Array.newInstance(in, 0));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#unsafelist()
+	 */
+	@Override
+	public List<String> unsafelist() {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				return LineAdapter.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return LineAdapter.this.size;
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.jre.cores.adapter.AbstractAdapter#slice(int, int)
+	 */
+	@Override
+	public List<String> slice(int start, int end) {
+		return unsafelist().subList(start, end);
+	}
+
+	/**
+	 * Mapped files can't be serialized, so we serialize the lines instead.
+	 * 
+	 * @return An adapter with all lines.
+	 * @throws ObjectStreamException
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new ArrayAdapter<String>(array(String.class));
+	}
+}
@@ -30,8 +30,6 @@ package net.jcores.jre.cores.adapter;
 import java.lang.reflect.Array;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Spliterator;
-import java.util.function.Consumer;
 
 /**
  * Wraps (random access) lists. This adapter should <b>not</b> be used with
@@ -114,16 +112,4 @@ public final class ListAdapter<T> extends AbstractAdapter<T> {
 	public List<T> slice(int start, int end) {
 		return this.list.subList(start, end);
 	}
-
-	@Override
-	public void forEach(Consumer<? super T> action) {
-		// TODO Auto-generated method stub
-
-	}
-
-	@Override
-	public Spliterator<T> spliterator() {
-		// TODO Auto-generated method stub
-		return null;
-	}
 }
@@ -0,0 +1,135 @@
+/*
+ * NumberAdapter.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Base class of the adapters wrapping primitive number arrays. Elements are only boxed
+ * when they are requested through <code>get()</code>, numeric code should use the
+ * primitive accessors instead. Primitive adapters never contain <code>null</code>.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public abstract class NumberAdapter extends AbstractAdapter<Number> {
+	/** */
+	private static final long serialVersionUID = -3306530307613434407L;
+
+	/**
+	 * Returns the element at position i as a double.
+	 * 
+	 * @param i
+	 * 
+	 * @return .
+	 */
+	public abstract double d(int i);
+
+	/**
+	 * Returns the element at position i as a long.
+	 * 
+	 * @param i
+	 * 
+	 * @return .
+	 */
+	public abstract long l(int i);
+
+	/**
+	 * Returns the element at position i as an int.
+	 * 
+	 * @param i
+	 * 
+	 * @return .
+	 */
+	public abstract int i(int i);
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#iterator()
+	 */
+	@Override
+	public ListIterator<Number> iterator() {
+		return unsafelist().listIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * net.jcores.shared.cores.adapter.AbstractAdapter#array(java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <N> N[] array(Class<N> in) {
+		final int size = size();
+		final N[] rval = (N[]) Array.newInstance(in, size);
+
+		for (int i = 0; i < size; i++) {
+			final Number number = get(i);
+			if (in.isInstance(number))
+				rval[i] = (N) number;
+		}
+
+		return rval;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#unsafelist()
+	 */
+	@Override
+	public List<Number> unsafelist() {
+		return new AbstractList<Number>() {
+			@Override
+			public Number get(int index) {
+				return NumberAdapter.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return NumberAdapter.this.size();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see net.jcores.shared.cores.adapter.AbstractAdapter#slice(int, int)
+	 */
+	@Override
+	public List<Number> slice(int start, int end) {
+		return new ArrayList<Number>(unsafelist().subList(start, end));
+	}
+}
@@ -27,13 +27,23 @@
  */
 package net.jcores.jre.managers;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.jcores.jre.interfaces.functions.F0;
+import net.jcores.jre.options.IO;
 import net.jcores.jre.utils.internal.structures.ProfileInformation;
 
 /**
@@ -43,12 +53,117 @@ import net.jcores.jre.utils.internal.structures.ProfileInformation;
  * @author Ralf Biedert
  */
 public class ManagerExecution extends Manager {
+    /**
+     * The engines with which <code>map()</code> can process a core in parallel.
+     * 
+     * @since 1.0
+     */
+    public static enum MapEngine {
+        /** A fixed number of threads claim fixed chunks and meet at a barrier when done (the default). */
+        BARRIER,
+
+        /** The core is split recursively and processed on a work-stealing fork/join pool. */
+        FORKJOIN,
+    }
+
+    /**
+     * Identifies the function classes and element type of a cost estimate. The classes are 
+     * only weakly referenced, so we don't keep their class loaders alive. Keys of unloaded
+     * classes never match again and are eventually dropped as least recently used.
+     */
+    private static final class CostKey {
+        /** The classes */
+        private final WeakReference<?>[] classes;
+
+        /** The hash of the classes */
+        private final int hash;
+
+        /**
+         * Creates a new key.
+         * 
+         * @param classes The classes, might contain <code>null</code>.
+         */
+        CostKey(Class<?>[] classes) {
+            this.classes = new WeakReference<?>[classes.length];
+            for (int i = 0; i < classes.length; i++) {
+                this.classes[i] = classes[i] == null ? null : new WeakReference<Class<?>>(classes[i]);
+            }
+            this.hash = Arrays.hashCode(classes);
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof CostKey)) return false;
+
+            final CostKey other = (CostKey) obj;
+            if (this.hash != other.hash || this.classes.length != other.classes.length) return false;
+            for (int i = 0; i < this.classes.length; i++) {
+                if (this.classes[i] == other.classes[i]) continue;
+                if (this.classes[i] == null || other.classes[i] == null) return false;
+
+                // Collected classes can't be told apart anymore
+                final Object mine = this.classes[i].get();
+                if (mine == null || mine != other.classes[i].get()) return false;
+            }
+            return true;
+        }
+    }
+
     /** The executor with which we execute tasks. */
     ExecutorService executor;
+
+    /** The work-stealing pool used by the fork/join engine. */
+    ForkJoinPool forkJoinPool;
+
+    /** The executor for I/O bound maps, using virtual threads if the VM has them. */
+    ExecutorService ioExecutor;
+
+    /** The work-stealing pool for blocking tasks, created when first needed. */
+    private volatile ForkJoinPool ioForkJoinPool;
+
+    /** Marks the threads currently running a <code>map()</code> worker. */
+    private final ThreadLocal<Boolean> worker = new ThreadLocal<Boolean>();
+
+    /** The engine <code>map()</code> currently uses. */
+    private volatile MapEngine mapEngine = MapEngine.BARRIER;
     
     /** Our profile information so we know how long new tasks took */
     ProfileInformation profile;
 
+    /** How many function costs we remember at most */
+    private static final int MAX_COSTS = 1024;
+
+    /** How often (in ns) we measure the fork time again */
+    public static final long RECALIBRATION_INTERVAL = 30L * 1000 * 1000 * 1000;
+
+    /** The estimated cost per element, by function classes and element type, least recently used first */
+    @SuppressWarnings("serial")
+    private final Map<CostKey, AtomicLong> costs = Collections.synchronizedMap(new LinkedHashMap<CostKey, AtomicLong>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CostKey, AtomicLong> eldest) {
+            return size() > MAX_COSTS;
+        }
+    });
+
+    /** When we last measured the fork time */
+    private final AtomicLong lastCalibration = new AtomicLong(System.nanoTime());
+
     /** Creates our execution manager. */
     public ManagerExecution() {
         // Create an executor that does not prevent us from quitting.
@@ -59,10 +174,27 @@ public class ManagerExecution extends Manager {
                 return t;
             }
         });
-        
+
+        this.forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.ioExecutor = virtualExecutor();
         this.profile = profile();
     }
 
+    /**
+     * Returns an executor starting a virtual thread per task if the VM supports them (Java 21 
+     * and later), or our regular (cached) executor otherwise.
+     * 
+     * @return The executor to use for I/O bound tasks.
+     */
+    private ExecutorService virtualExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return this.executor;
+        }
+    }
+
     
     /**
      * Returns our executor.
@@ -72,7 +204,148 @@ public class ManagerExecution extends Manager {
     public ExecutorService getExecutor() {
         return this.executor;
     }
+
+    /**
+     * Returns the executor for I/O bound tasks. On VMs supporting virtual threads each task
+     * runs in a virtual thread of its own, otherwise this equals <code>getExecutor()</code>.
+     * 
+     * @return The I/O executor.
+     */
+    public ExecutorService getIOExecutor() {
+        return this.ioExecutor;
+    }
+
+    /**
+     * Returns our work-stealing fork/join pool.
+     * 
+     * @return The fork/join pool.
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return this.forkJoinPool;
+    }
+
+    /**
+     * Returns the work-stealing fork/join pool for tasks that mostly block on I/O, like 
+     * walking directories. It has up to {@link IO#DEFAULT_CONCURRENCY} threads, which are 
+     * only started when needed, and is shared by all such tasks.
+     * 
+     * @return The I/O fork/join pool.
+     */
+    public ForkJoinPool getIOForkJoinPool() {
+        ForkJoinPool pool = this.ioForkJoinPool;
+        if (pool != null) return pool;
+
+        synchronized (this) {
+            if (this.ioForkJoinPool == null) this.ioForkJoinPool = new ForkJoinPool(IO.DEFAULT_CONCURRENCY);
+            return this.ioForkJoinPool;
+        }
+    }
+
+    /**
+     * Marks or unmarks the current thread as running a <code>map()</code> worker and 
+     * updates the thread counts of our profile.
+     * 
+     * @param running True when the worker starts, false when it is done.
+     */
+    public void worker(boolean running) {
+        if (running) {
+            this.worker.set(Boolean.TRUE);
+            final int threads = this.profile.workerThreads.incrementAndGet();
+
+            // Remember the peak
+            int peak = this.profile.peakWorkerThreads.get();
+            while (threads > peak && !this.profile.peakWorkerThreads.compareAndSet(peak, threads)) {
+                peak = this.profile.peakWorkerThreads.get();
+            }
+        } else {
+            this.worker.remove();
+            this.profile.workerThreads.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns if the current thread is running a <code>map()</code> worker (i.e., if a map 
+     * would be nested in another one).
+     * 
+     * @return True if it is.
+     */
+    public boolean isWorker() {
+        return this.worker.get() != null || ForkJoinTask.getPool() == this.forkJoinPool;
+    }
+
+    /**
+     * Selects the engine with which <code>map()</code> processes cores in parallel.
+     * 
+     * @param engine The engine to use.
+     */
+    public void mapEngine(MapEngine engine) {
+        this.mapEngine = engine == null ? MapEngine.BARRIER : engine;
+    }
+
+    /**
+     * Returns the engine with which <code>map()</code> processes cores in parallel.
+     * 
+     * @return The current engine.
+     */
+    public MapEngine mapEngine() {
+        return this.mapEngine;
+    }
     
+    /**
+     * Returns the estimated cost per element of the given function on the given type of 
+     * elements, after updating the estimate with a new observation. The estimate is an 
+     * exponential moving average, so single outliers don't dominate it.
+     * 
+     * @param functions The classes of the mapped functions.
+     * @param type The type of the mapped elements.
+     * @param observed The observed cost per element in ns.
+     * @return The new estimated cost per element in ns.
+     */
+    public long cost(Class<?>[] functions, Class<?> type, long observed) {
+        final Class<?>[] classes = Arrays.copyOf(functions, functions.length + 1);
+        classes[functions.length] = type;
+
+        // Unknown functions start with the observation, if we know too many functions 
+        // already the least recently used one is dropped
+        final CostKey key = new CostKey(classes);
+        final AtomicLong cost;
+        synchronized (this.costs) {
+            final AtomicLong known = this.costs.get(key);
+            if (known == null) {
+                this.costs.put(key, new AtomicLong(observed));
+                return observed;
+            }
+            cost = known;
+        }
+
+        // Otherwise move the average a quarter towards the observation
+        while (true) {
+            final long old = cost.get();
+            final long updated = old + (observed - old) / 4;
+            if (cost.compareAndSet(old, updated)) return updated;
+        }
+    }
+
+    /**
+     * Measures the fork time again in the background if the last measurement is older than
+     * {@link #RECALIBRATION_INTERVAL}. The new measurement is blended with the old one.
+     */
+    public void recalibrate() {
+        final long last = this.lastCalibration.get();
+        final long now = System.nanoTime();
+
+        if (now - last < RECALIBRATION_INTERVAL) return;
+        if (!this.lastCalibration.compareAndSet(last, now)) return;
+
+        this.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ProfileInformation p = ManagerExecution.this.profile;
+                p.forkTime = (3 * p.forkTime + forkTime()) / 4;
+            }
+        });
+    }
+
     /**
      * Benchmark the VM. Dirty, but should give us some rough estimates
      * 
@@ -80,11 +353,21 @@ public class ManagerExecution extends Manager {
      */
     private ProfileInformation profile() {
         final ProfileInformation p = new ProfileInformation();
+        p.forkTime = forkTime();
+        p.numCPUs = Runtime.getRuntime().availableProcessors();
+        return p;
+    }
+
+    /**
+     * Measure how long it takes to fork a thread and to wait for it again. 
+     * 
+     * @return The fork time in nanoseconds.
+     */
+    private long forkTime() {
         final int RUNS = 10;
         final int N = 5;
 
-        // Measure how long it takes to fork a thread and to wait for it again. We
-        // test 10 times and take the average of the last 5 runs.
+        // We test 10 times and take the average of the last 5 runs.
         long times[] = new long[RUNS];
         for (int i = 0; i < RUNS; i++) {
             times[i] = measure(new F0() {
@@ -118,14 +401,12 @@ public class ManagerExecution extends Manager {
         }
 
         // Now take the average
+        long forkTime = 0;
         for (int i = RUNS - N; i < times.length; i++) {
-            p.forkTime += times[i];
+            forkTime += times[i];
         }
 
-        p.forkTime /= N;
-        p.numCPUs = Runtime.getRuntime().availableProcessors();
-
-        return p;
+        return forkTime / N;
     }
 
 
@@ -0,0 +1,156 @@
+/*
+ * Completion.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records which elements a <code>map()</code> has processed. This is mostly useful 
+ * together with a {@link KillSwitch} or a {@link Deadline}, when the map might return 
+ * before all elements have been processed. A {@link Completion} should only be passed to 
+ * a single operation at a time.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(urls).map(fetch, Deadline.IN(100), completion)</code> - Fetches as many URLs 
+ * as possible within 100ms, <code>completion.completed(i)</code> tells whether the i-th 
+ * result is final.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class Completion extends Option {
+    /**
+     * Constructs a new {@link Completion}.
+     * 
+     * @since 1.0
+     * @return The new {@link Completion}.
+     */
+    public static final Completion NEW() {
+        return new Completion();
+    }
+
+    /** One bit per element, set while the operation runs */
+    private volatile AtomicLongArray bits = new AtomicLongArray(0);
+
+    /** The snapshot taken when the operation returned */
+    private volatile BitSet bitmap = new BitSet();
+
+    /** The number of elements of the last operation */
+    private volatile int size;
+
+    /** Use NEW() */
+    private Completion() {}
+
+    /**
+     * Called by the operation before it starts. You do not need this.
+     * 
+     * @param size The number of elements to process.
+     */
+    public void start(int size) {
+        this.size = size;
+        this.bitmap = new BitSet();
+        this.bits = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Called by the operation when an element has been processed. You do not need this.
+     * 
+     * @param i The index of the element.
+     */
+    public void done(int i) {
+        final AtomicLongArray bits = this.bits;
+        final int word = i >>> 6;
+        final long mask = 1L << i;
+
+        long old = bits.get(word);
+        while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+            old = bits.get(word);
+        }
+    }
+
+    /**
+     * Called by the operation when it returns. Elements that finish afterwards are not 
+     * considered completed. You do not need this.
+     */
+    public void finish() {
+        final AtomicLongArray bits = this.bits;
+        final long words[] = new long[bits.length()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = bits.get(i);
+        }
+
+        this.bits = new AtomicLongArray(words.length);
+        this.bitmap = BitSet.valueOf(words);
+    }
+
+    /**
+     * Returns if the given element has been processed.
+     * 
+     * @since 1.0
+     * @param i The index of the element.
+     * @return True if it has.
+     */
+    public boolean completed(int i) {
+        return this.bitmap.get(i);
+    }
+
+    /**
+     * Returns if all elements have been processed.
+     * 
+     * @since 1.0
+     * @return True if the operation ran to completion.
+     */
+    public boolean complete() {
+        return count() == this.size;
+    }
+
+    /**
+     * Returns the number of processed elements.
+     * 
+     * @since 1.0
+     * @return The number of processed elements.
+     */
+    public int count() {
+        return this.bitmap.cardinality();
+    }
+
+    /**
+     * Returns a copy of the completion bitmap, bit i is set if element i has been 
+     * processed.
+     * 
+     * @since 1.0
+     * @return The bitmap.
+     */
+    public BitSet bitmap() {
+        return (BitSet) this.bitmap.clone();
+    }
+}
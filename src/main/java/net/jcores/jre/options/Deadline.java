@@ -0,0 +1,81 @@
+/*
+ * Deadline.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+/**
+ * Specifies a point in time after which a <code>map()</code> or <code>fold()</code> should 
+ * give up. Elements not processed by then are left empty, pass a {@link Completion} to find 
+ * out which ones have been processed.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class Deadline extends Option {
+    /**
+     * Constructs a deadline that expires after the given delay.
+     * 
+     * @since 1.0
+     * @param delay The delay in ms.
+     * @return The new {@link Deadline}.
+     */
+    public final static Deadline IN(long delay) {
+        return new Deadline(System.nanoTime() + delay * 1000000L);
+    }
+
+    /** The value of System.nanoTime() at which we expire */
+    private final long deadline;
+
+    /**
+     * Creates a new deadline.
+     * 
+     * @param deadline The expiration time in terms of System.nanoTime().
+     */
+    private Deadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     * 
+     * @since 1.0
+     * @return The remaining time in ns, negative if the deadline has passed.
+     */
+    public long remaining() {
+        return this.deadline - System.nanoTime();
+    }
+
+    /**
+     * Returns if the deadline has passed.
+     * 
+     * @since 1.0
+     * @return True if it has.
+     */
+    public boolean expired() {
+        return remaining() <= 0;
+    }
+}
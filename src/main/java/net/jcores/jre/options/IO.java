@@ -0,0 +1,85 @@
+/*
+ * IO.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+/**
+ * Specifies that a <code>map()</code> is bound by I/O instead of by the CPU, e.g., when 
+ * downloading URIs or reading files. Instead of one thread per CPU, each element is then 
+ * handled by a task of its own, with at most the given number of elements in flight at 
+ * any time. On VMs supporting virtual threads a virtual thread is used per element.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(uris).uri().download(IO.DO)</code> - Downloads all URIs with up to 
+ * {@link #DEFAULT_CONCURRENCY} concurrent connections.</li>
+ * <li><code>$(files).file().text(IO.CONCURRENCY(16))</code> - Reads at most 16 files 
+ * at the same time.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class IO extends Option {
+    /** The number of elements in flight when using {@link #DO} */
+    public final static int DEFAULT_CONCURRENCY = 256;
+
+    /** Handle the elements with the default concurrency */
+    public final static IO DO = new IO(DEFAULT_CONCURRENCY);
+
+    /**
+     * Handle the elements with at most the given number of elements in flight.
+     * 
+     * @param concurrency The maximal number of concurrently handled elements.
+     * @return The option.
+     */
+    public final static IO CONCURRENCY(int concurrency) {
+        return new IO(Math.max(concurrency, 1));
+    }
+
+    /** The maximal number of elements in flight */
+    private final int concurrency;
+
+    /**
+     * Creates a new IO option.
+     * 
+     * @param concurrency The maximal number of elements in flight.
+     */
+    private IO(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Returns the maximal number of elements in flight.
+     * 
+     * @return The concurrency.
+     */
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+}
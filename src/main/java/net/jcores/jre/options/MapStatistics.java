@@ -0,0 +1,251 @@
+/*
+ * MapStatistics.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics of a <code>map()</code>, e.g., to tune the scheduling for a given 
+ * function. After the map returned the statistics tell which mode was chosen, with how 
+ * many threads, into how many chunks the work was split and how evenly the work was 
+ * distributed among the threads. A {@link MapStatistics} object should only be passed to a 
+ * single operation at a time.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(images).map(decode, statistics)</code> - After the call, 
+ * <code>statistics.imbalance()</code> tells how much longer the busiest thread worked 
+ * than the average one.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class MapStatistics extends Option {
+    /** How a map was executed. */
+    public static enum Mode {
+        /** All elements were handled on the calling thread. */
+        SEQUENTIAL,
+
+        /** A fixed number of threads claimed chunks and met at a barrier. */
+        BARRIER,
+
+        /** The core was split recursively on the fork/join pool. */
+        FORKJOIN,
+
+        /** Each element was handled in a task of its own. */
+        IO,
+    }
+
+    /**
+     * Constructs a new {@link MapStatistics}.
+     * 
+     * @since 1.0
+     * @return The new {@link MapStatistics}.
+     */
+    public static final MapStatistics NEW() {
+        return new MapStatistics();
+    }
+
+    /** The mode of the last operation */
+    private volatile Mode mode;
+
+    /** The number of threads requested by the last operation */
+    private volatile int threads;
+
+    /** The number of chunks handled */
+    private final AtomicInteger chunks = new AtomicInteger();
+
+    /** The number of elements handled */
+    private final AtomicInteger elements = new AtomicInteger();
+
+    /** The time each thread spent handling chunks, by thread ID */
+    private final ConcurrentHashMap<Long, AtomicLong> busy = new ConcurrentHashMap<Long, AtomicLong>();
+
+    /** When the last operation started */
+    private volatile long start;
+
+    /** How long the last operation took */
+    private volatile long time;
+
+    /** Use NEW() */
+    private MapStatistics() {}
+
+    /**
+     * Called by the operation before it starts. You do not need this.
+     */
+    public void start() {
+        this.mode = Mode.SEQUENTIAL;
+        this.threads = 1;
+        this.chunks.set(0);
+        this.elements.set(0);
+        this.busy.clear();
+        this.time = 0;
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Called by the operation once it decided how to execute. You do not need this.
+     * 
+     * @param mode The chosen mode.
+     * @param threads The number of threads.
+     */
+    public void mode(Mode mode, int threads) {
+        this.mode = mode;
+        this.threads = threads;
+    }
+
+    /**
+     * Called by the operation whenever a thread handled a chunk. You do not need this.
+     * 
+     * @param elements The number of elements in the chunk.
+     * @param nanos The time it took to handle them.
+     */
+    public void chunk(int elements, long nanos) {
+        this.chunks.incrementAndGet();
+        this.elements.addAndGet(elements);
+
+        final Long id = Long.valueOf(Thread.currentThread().getId());
+        AtomicLong time = this.busy.get(id);
+        if (time == null) {
+            final AtomicLong old = this.busy.putIfAbsent(id, time = new AtomicLong());
+            if (old != null) time = old;
+        }
+
+        time.addAndGet(nanos);
+    }
+
+    /**
+     * Called by the operation when it handled elements to probe their cost, before the 
+     * work was distributed. They count as a chunk, but not towards the time of any thread. 
+     * You do not need this.
+     * 
+     * @param elements The number of elements probed.
+     */
+    public void probe(int elements) {
+        this.chunks.incrementAndGet();
+        this.elements.addAndGet(elements);
+    }
+
+    /**
+     * Called by the operation when it returns. You do not need this.
+     */
+    public void finish() {
+        this.time = System.nanoTime() - this.start;
+    }
+
+    /**
+     * Returns how the last operation was executed.
+     * 
+     * @since 1.0
+     * @return The mode.
+     */
+    public Mode mode() {
+        return this.mode;
+    }
+
+    /**
+     * Returns the number of threads the last operation was executed with.
+     * 
+     * @since 1.0
+     * @return The number of threads.
+     */
+    public int threads() {
+        return this.threads;
+    }
+
+    /**
+     * Returns the number of chunks the work was split into.
+     * 
+     * @since 1.0
+     * @return The number of chunks.
+     */
+    public int chunks() {
+        return this.chunks.get();
+    }
+
+    /**
+     * Returns the number of elements that were handled.
+     * 
+     * @since 1.0
+     * @return The number of elements.
+     */
+    public int elements() {
+        return this.elements.get();
+    }
+
+    /**
+     * Returns how long the last operation took.
+     * 
+     * @since 1.0
+     * @return The time in nanoseconds.
+     */
+    public long time() {
+        return this.time;
+    }
+
+    /**
+     * Returns the ratio between the time the busiest thread spent on its chunks and the 
+     * average time of all threads that handled chunks. A value of 1.0 means the work was 
+     * perfectly balanced, a value of 2.0 means the busiest thread worked twice as long as 
+     * the average thread. The element the caller probed before distributing the work is 
+     * not included.
+     * 
+     * @since 1.0
+     * @return The imbalance, or 1.0 if nothing was measured.
+     */
+    public double imbalance() {
+        long max = 0;
+        long sum = 0;
+        int n = 0;
+
+        for (AtomicLong time : this.busy.values()) {
+            final long t = time.get();
+            max = Math.max(max, t);
+            sum += t;
+            n++;
+        }
+
+        if (sum == 0) return 1.0;
+        return (double) max * n / sum;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MapStatistics[mode=" + this.mode + ", threads=" + this.threads + ", chunks=" + chunks() + 
+               ", elements=" + elements() + ", imbalance=" + imbalance() + ", time=" + this.time + "]";
+    }
+}
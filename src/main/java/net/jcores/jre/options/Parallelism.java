@@ -0,0 +1,88 @@
+/*
+ * Parallelism.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+/**
+ * Overrides how many threads a <code>map()</code> or <code>fold()</code> uses. By default 
+ * jCores times the first element and only goes parallel if the remaining elements are 
+ * expected to take longer than spawning threads. Functions with very different costs per 
+ * element (e.g., decoding images) might be misjudged that way, and some functions must stay 
+ * on the calling thread.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(files).map(decode, Parallelism.PARALLEL(8))</code> - Decodes the files with 8 
+ * threads, no matter how long the first one took.</li>
+ * <li><code>$(widgets).map(update, Parallelism.SEQUENTIAL)</code> - Updates all widgets 
+ * on the calling thread.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class Parallelism extends Option {
+    /** Let jCores decide (the default) */
+    public final static Parallelism AUTO = new Parallelism(0);
+
+    /** Handle all elements on the calling thread */
+    public final static Parallelism SEQUENTIAL = new Parallelism(1);
+
+    /**
+     * Handle the elements with the given number of threads, even if this is more than the 
+     * number of CPUs. Fold operations run on the shared fork/join pool, so for them the 
+     * number only determines into how many parts the core is split.
+     * 
+     * @param threads The number of threads to use.
+     * @return The option.
+     */
+    public final static Parallelism PARALLEL(int threads) {
+        return threads <= 1 ? SEQUENTIAL : new Parallelism(threads);
+    }
+
+    /** The number of threads to use, 0 if jCores should decide */
+    private final int threads;
+
+    /**
+     * Creates a new parallelism option.
+     * 
+     * @param threads The number of threads.
+     */
+    private Parallelism(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the number of threads to use.
+     * 
+     * @return The number of threads, or 0 if jCores should decide.
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * PathFilter.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+/**
+ * Filters the entries found while walking directories. Filters are applied to the absolute 
+ * path of each entry while it is being listed, so excluded directories are never entered 
+ * and their content never read. Several filters can be given, an entry is returned if it 
+ * matches all includes and no exclude.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(".").file().dir(PathFilter.EXCLUDE(".*&#47;\\.git"))</code> - Lists all files, 
+ * but does not descend into <code>.git</code> directories.</li>
+ * <li><code>$(".").file().dir(PathFilter.INCLUDE_GLOB("**&#47;*.java"))</code> - Lists all Java 
+ * files.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class PathFilter extends Option {
+    /**
+     * Only returns entries whose absolute path matches the regular expression. Directories
+     * are still entered.
+     * 
+     * @param regex The regular expression to match.
+     * @return The option.
+     */
+    public final static PathFilter INCLUDE(String regex) {
+        return new PathFilter("regex:" + regex, false);
+    }
+
+    /**
+     * Only returns entries whose absolute path matches the glob. Directories are still 
+     * entered.
+     * 
+     * @param glob The glob to match.
+     * @return The option.
+     */
+    public final static PathFilter INCLUDE_GLOB(String glob) {
+        return new PathFilter("glob:" + glob, false);
+    }
+
+    /**
+     * Skips all entries whose absolute path matches the regular expression. Matching 
+     * directories are not entered.
+     * 
+     * @param regex The regular expression to match.
+     * @return The option.
+     */
+    public final static PathFilter EXCLUDE(String regex) {
+        return new PathFilter("regex:" + regex, true);
+    }
+
+    /**
+     * Skips all entries whose absolute path matches the glob. Matching directories are not
+     * entered.
+     * 
+     * @param glob The glob to match.
+     * @return The option.
+     */
+    public final static PathFilter EXCLUDE_GLOB(String glob) {
+        return new PathFilter("glob:" + glob, true);
+    }
+
+    /** Matches the paths */
+    private final PathMatcher matcher;
+
+    /** If matching entries should be skipped */
+    private final boolean exclude;
+
+    /**
+     * Creates a new path filter.
+     * 
+     * @param pattern The syntax and pattern for the matcher.
+     * @param exclude If matching entries should be skipped.
+     */
+    private PathFilter(String pattern, boolean exclude) {
+        this.matcher = FileSystems.getDefault().getPathMatcher(pattern);
+        this.exclude = exclude;
+    }
+
+    /**
+     * Returns if matching entries are skipped.
+     * 
+     * @return True if this is an exclude filter.
+     */
+    public boolean isExclude() {
+        return this.exclude;
+    }
+
+    /**
+     * Returns if the given path matches.
+     * 
+     * @param path The absolute path to test.
+     * @return True if the path matches.
+     */
+    public boolean matches(Path path) {
+        return this.matcher.matches(path);
+    }
+}
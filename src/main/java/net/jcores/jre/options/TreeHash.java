@@ -0,0 +1,83 @@
+/*
+ * TreeHash.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.options;
+
+/**
+ * Hashes large data as a tree. The data is split into chunks which are hashed in parallel, 
+ * the resulting hash is the hash of all chunk hashes, in order. Tree hashes therefore 
+ * differ from plain hashes of the same data, and from tree hashes with a different chunk 
+ * size. Use this for huge files, where a single thread could not keep up with the disk.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$("disk.img").file().hash(Hash.MD5, TreeHash.DO)</code> - Hashes the image with 
+ * all CPUs.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class TreeHash extends Option {
+    /** The chunk size when using {@link #DO} */
+    public final static int DEFAULT_CHUNK = 4 * 1024 * 1024;
+
+    /** Hash with the default chunk size */
+    public final static TreeHash DO = new TreeHash(DEFAULT_CHUNK);
+
+    /**
+     * Hash with the given chunk size.
+     * 
+     * @param size The size of each chunk in bytes.
+     * @return The option.
+     */
+    public final static TreeHash CHUNK(int size) {
+        return new TreeHash(Math.max(size, 1));
+    }
+
+    /** The size of each chunk */
+    private final int chunk;
+
+    /**
+     * Creates a new tree hash option.
+     * 
+     * @param chunk The size of each chunk.
+     */
+    private TreeHash(int chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * Returns the size of each chunk.
+     * 
+     * @return The chunk size in bytes.
+     */
+    public int getChunkSize() {
+        return this.chunk;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Lazy.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.jcores.jre.annotations.SupportsOption;
+import net.jcores.jre.cores.CoreObject;
+import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.interfaces.functions.F1Object2Bool;
+import net.jcores.jre.options.InvertSelection;
+import net.jcores.jre.options.MapType;
+import net.jcores.jre.options.Option;
+import net.jcores.jre.utils.internal.Options;
+
+/**
+ * Records a chain of operations on a core without executing them, obtained by 
+ * <code>$(...).lazy()</code>. When <code>evaluate()</code> is called all recorded 
+ * stages are fused into a single function and executed in one parallel 
+ * <code>map()</code> pass, so no intermediate arrays are created in between. A
+ * {@link Lazy} object is immutable, each method returns a new one.<br/>
+ * <br/>
+ * 
+ * Examples:
+ * <ul>
+ * <li><code>$(list).lazy().map(f).filter(g).map(h).compact().evaluate()</code> - Same 
+ * result as <code>$(list).map(f).filter(g).map(h).compact()</code>, but with only one 
+ * pass over the elements.</li>
+ * </ul>
+ * 
+ * @author Ralf Biedert
+ * @param <T> The type of the elements at the current end of the chain.
+ * @since 1.0
+ */
+public class Lazy<T> {
+    /**
+     * The fused function of all stages, as executed by <code>evaluate()</code>. You do not 
+     * need this.
+     * 
+     * @author Ralf Biedert
+     */
+    @SuppressWarnings("rawtypes")
+    public static final class Chain implements F1<Object, Object> {
+        /** The stages to pass each element through */
+        private final F1[] stages;
+
+        /** The classes of the functions given to the stages */
+        private final Class<?>[] functions;
+
+        /**
+         * Creates a new chain.
+         * 
+         * @param stages The stages to pass each element through.
+         * @param functions The classes of the functions given to the stages.
+         */
+        Chain(F1[] stages, Class<?>[] functions) {
+            this.stages = stages;
+            this.functions = functions;
+        }
+
+        /**
+         * Returns the classes of the functions given to the stages. They identify the chain
+         * when its cost is estimated, as all chains share this class.
+         * 
+         * @return The function classes.
+         */
+        public Class<?>[] functions() {
+            return this.functions.clone();
+        }
+
+        /*
+         * (non-Javadoc)
+         * 
+         * @see net.jcores.jre.interfaces.functions.F1#f(java.lang.Object)
+         */
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object f(Object x) {
+            // Pass each element through all stages, stop as soon as one drops it
+            Object value = x;
+            for (F1 stage : this.stages) {
+                value = stage.f(value);
+                if (value == null) return null;
+            }
+            return value;
+        }
+    }
+
+    /** The core we started with */
+    private final CoreObject<?> source;
+
+    /** All stages recorded so far, each returning <code>null</code> for dropped elements */
+    @SuppressWarnings("rawtypes")
+    private final List<F1> stages;
+
+    /** The classes of the functions given to each stage */
+    private final List<Class<?>> functions;
+
+    /** If the result should be compacted */
+    private final boolean compact;
+
+    /**
+     * Starts a new chain for the given core.
+     * 
+     * @param source The core to work on.
+     */
+    @SuppressWarnings("rawtypes")
+    public Lazy(CoreObject<T> source) {
+        this(source, new ArrayList<F1>(), new ArrayList<Class<?>>(), false);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Lazy(CoreObject<?> source, List<F1> stages, List<Class<?>> functions, boolean compact) {
+        this.source = source;
+        this.stages = stages;
+        this.functions = functions;
+        this.compact = compact;
+    }
+
+    /**
+     * Returns a new chain with the given stage appended.
+     * 
+     * @param stage The stage to append.
+     * @param function The class of the function given to the stage.
+     * @return The new chain.
+     */
+    @SuppressWarnings("rawtypes")
+    private <R> Lazy<R> with(F1 stage, Class<?> function) {
+        final List<F1> stages = new ArrayList<F1>(this.stages);
+        final List<Class<?>> functions = new ArrayList<Class<?>>(this.functions);
+        stages.add(stage);
+        functions.add(function);
+        return new Lazy<R>(this.source, stages, functions, this.compact);
+    }
+
+    /**
+     * Records a <code>cast()</code>, see {@link CoreObject}.
+     * 
+     * @param <N> Target type.
+     * @param target Class to cast all elements to.
+     * @return The extended chain.
+     */
+    public <N> Lazy<N> cast(final Class<N> target) {
+        final F1<T, N> stage = new F1<T, N>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public N f(T x) {
+                if (target.isAssignableFrom(x.getClass())) return (N) x;
+                return null;
+            }
+        };
+        return with(stage, stage.getClass());
+    }
+
+    /**
+     * Records a <code>compact()</code>, see {@link CoreObject}. The compaction is performed 
+     * once at the end of the evaluation.
+     * 
+     * @return The extended chain.
+     */
+    public Lazy<T> compact() {
+        return new Lazy<T>(this.source, this.stages, this.functions, true);
+    }
+
+    /**
+     * Records a <code>filter()</code>, see {@link CoreObject}. In contrast to the core's 
+     * <code>filter()</code> the result is only compacted if <code>compact()</code> was 
+     * recorded as well.
+     * 
+     * @param f If f returns true the object is kept.
+     * @param options Supports {@link InvertSelection}.
+     * @return The extended chain.
+     */
+    @SupportsOption(options = { InvertSelection.class })
+    public Lazy<T> filter(final F1Object2Bool<T> f, Option... options) {
+        final boolean invert = Options.$(options).invert();
+        return with(new F1<T, T>() {
+            @Override
+            public T f(T x) {
+                return f.f(x) != invert ? x : null;
+            }
+        }, f.getClass());
+    }
+
+    /**
+     * Records a <code>map()</code>, see {@link CoreObject}.
+     * 
+     * @param <R> Return type.
+     * @param f Mapper function, must be thread-safe.
+     * @return The extended chain.
+     */
+    public <R> Lazy<R> map(final F1<T, R> f) {
+        return with(f, f.getClass());
+    }
+
+    /**
+     * Records a <code>string()</code>, see {@link CoreObject}.
+     * 
+     * @return The extended chain.
+     */
+    public Lazy<String> string() {
+        final F1<T, String> stage = new F1<T, String>() {
+            @Override
+            public String f(T x) {
+                return x.toString();
+            }
+        };
+        return with(stage, stage.getClass());
+    }
+
+    /**
+     * Executes all recorded stages in a single <code>map()</code> pass over the source core
+     * and returns the result.
+     * 
+     * @param options Relevant options: {@link MapType}.
+     * @return A core with the results of the chain in a stable order.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @SupportsOption(options = { MapType.class })
+    public CoreObject<T> evaluate(Option... options) {
+        final F1[] stages = this.stages.toArray(new F1[this.stages.size()]);
+        final Class<?>[] functions = this.functions.toArray(new Class<?>[this.functions.size()]);
+
+        final CoreObject<T> rval = ((CoreObject) this.source).map(new Chain(stages, functions), options);
+
+        return this.compact ? rval.compact() : rval;
+    }
+}
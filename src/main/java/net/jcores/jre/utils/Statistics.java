@@ -0,0 +1,187 @@
+/*
+ * Statistics.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils;
+
+import java.io.Serializable;
+
+/**
+ * Summary statistics of a number of values as returned by <code>CoreNumber.stats()</code>. 
+ * <code>NaN</code> values are ignored. The variance is accumulated with Welford's method, 
+ * so partial statistics of disjoint parts can be merged without a second pass.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class Statistics implements Serializable {
+    /** */
+    private static final long serialVersionUID = 2338214426154460093L;
+
+    /** The number of values seen */
+    private long count = 0;
+
+    /** The sum of all values */
+    private double sum = 0.0;
+
+    /** The smallest value */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /** The largest value */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /** The running mean */
+    private double mean = 0.0;
+
+    /** The running sum of squared differences from the mean */
+    private double m2 = 0.0;
+
+    /**
+     * Adds a value, <code>NaN</code> is ignored.
+     * 
+     * @param value The value to add.
+     * @return This object.
+     */
+    public Statistics add(double value) {
+        if (Double.isNaN(value)) return this;
+
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+
+        final double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (value - this.mean);
+
+        return this;
+    }
+
+    /**
+     * Merges the statistics of another, disjoint set of values into this object.
+     * 
+     * @param other The statistics to merge.
+     * @return This object.
+     */
+    public Statistics merge(Statistics other) {
+        if (other == null || other.count == 0) return this;
+        if (this.count == 0) {
+            this.count = other.count;
+            this.sum = other.sum;
+            this.min = other.min;
+            this.max = other.max;
+            this.mean = other.mean;
+            this.m2 = other.m2;
+            return this;
+        }
+
+        final long n = this.count + other.count;
+        final double delta = other.mean - this.mean;
+
+        this.m2 += other.m2 + delta * delta * ((double) this.count * other.count / n);
+        this.mean += delta * other.count / n;
+        this.count = n;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+
+        return this;
+    }
+
+    /**
+     * Returns the number of (non-<code>NaN</code>) values.
+     * 
+     * @return The count.
+     */
+    public long count() {
+        return this.count;
+    }
+
+    /**
+     * Returns the sum of all values.
+     * 
+     * @return The sum, or <code>0</code> if there were no values.
+     */
+    public double sum() {
+        return this.sum;
+    }
+
+    /**
+     * Returns the smallest value.
+     * 
+     * @return The minimum, or <code>NaN</code> if there were no values.
+     */
+    public double min() {
+        return this.count == 0 ? Double.NaN : this.min;
+    }
+
+    /**
+     * Returns the largest value.
+     * 
+     * @return The maximum, or <code>NaN</code> if there were no values.
+     */
+    public double max() {
+        return this.count == 0 ? Double.NaN : this.max;
+    }
+
+    /**
+     * Returns the average of all values.
+     * 
+     * @return The mean, or <code>NaN</code> if there were no values.
+     */
+    public double mean() {
+        return this.count == 0 ? Double.NaN : this.sum / this.count;
+    }
+
+    /**
+     * Returns the variance of all values, assuming a uniform distribution.
+     * 
+     * @return The variance, or <code>NaN</code> if there were no values.
+     */
+    public double variance() {
+        return this.count == 0 ? Double.NaN : this.m2 / this.count;
+    }
+
+    /**
+     * Returns the standard deviation of all values.
+     * 
+     * @return The standard deviation, or <code>NaN</code> if there were no values.
+     */
+    public double standarddeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Statistics(count:" + count() + "; sum:" + sum() + "; min:" + min() + "; max:" + max() + 
+               "; mean:" + mean() + "; variance:" + variance() + ")";
+    }
+}
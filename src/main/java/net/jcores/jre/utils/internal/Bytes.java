@@ -28,8 +28,6 @@
 package net.jcores.jre.utils.internal;
 
 import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
 /**
  * Internally used data functions.
@@ -44,29 +42,7 @@ public class Bytes {
      * @param method Method to use.
      * @return A string with the hash.
      */
-    @SuppressWarnings("boxing")
     public static String generateHash(ByteBuffer data, String method) {
-        // Try to generate hash
-        try {
-            final MessageDigest digest = java.security.MessageDigest.getInstance(method);
-            digest.update(data.array(), 0, data.limit());
-
-            final byte[] hash = digest.digest();
-
-            // Assemble hash string
-            final StringBuilder sb = new StringBuilder();
-            for (final byte b : hash) {
-                final String format = String.format("%02x", b);
-                sb.append(format);
-            }
-
-            final String hashValue = sb.toString().substring(0, sb.toString().length());
-            return hashValue;
-        } catch (final NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        } finally {
-            //
-        }
-        return null;
+        return Hashes.hash(data, method);
     }
 }
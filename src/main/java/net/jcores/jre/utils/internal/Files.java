@@ -34,9 +34,14 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
@@ -45,12 +50,25 @@ import java.util.zip.ZipOutputStream;
 
 import net.jcores.jre.CommonCore;
 import net.jcores.jre.CoreKeeper;
+import net.jcores.jre.cores.CoreObject;
+import net.jcores.jre.cores.adapter.AbstractAdapter;
+import net.jcores.jre.cores.adapter.LineAdapter;
+import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.managers.ManagerExecution;
+import net.jcores.jre.options.IO;
+import net.jcores.jre.options.MapType;
 import net.jcores.jre.options.MessageType;
+import net.jcores.jre.options.PathFilter;
+import net.jcores.jre.utils.internal.processing.WalkTask;
+import net.jcores.jre.utils.internal.structures.AttributedFile;
 
 /**
  * @author Ralf Biedert
  */
 public class Files {
+    /** The size of the chunks in which lines() maps and indexes files */
+    private static final int LINE_CHUNK = 16 * 1024 * 1024;
+
     /**
      * Reads the content of file as text.
      * 
@@ -87,109 +105,187 @@ public class Files {
     }
 
     /**
-     * Lists all elements under the given root.
+     * Maps the given file into memory and finds all line breaks in parallel. The lines 
+     * themselves are only decoded when they are accessed.
      * 
-     * @param root
-     * @param listDirs
-     * @return A list of elements
+     * @param cc
+     * @param file
+     * @return An adapter for all lines of the file, or <code>null</code> if the file could not 
+     * be read.
      */
-    public static File[] dir(File root, boolean listDirs) {
-        final List<File> rval = new ArrayList<File>();
-
-        // Get top level files ...
-        List<File> next = new ArrayList<File>();
-        File[] listed = root.listFiles();
+    public static AbstractAdapter<String> lines(CommonCore cc, File file) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
 
-        // In case there are no files in the given diretory element, return
-        if (listed == null) return null;
+            final FileChannel channel = raf.getChannel();
+            final long length = channel.size();
+            final int n = (int) ((length + LINE_CHUNK - 1) / LINE_CHUNK);
+            final ByteBuffer[] chunks = new ByteBuffer[n];
 
-        // Queue all we found
-        next.addAll(Arrays.asList(listed));
+            for (int c = 0; c < n; c++) {
+                final long start = (long) c * LINE_CHUNK;
+                chunks[c] = channel.map(MapMode.READ_ONLY, start, Math.min(LINE_CHUNK, length - start));
+            }
 
-        while (next.size() > 0) {
-            // Take over all from the next queue
-            listed = next.toArray(new File[0]);
-            next.clear();
+            if (n == 0) return new LineAdapter(LINE_CHUNK, chunks, new int[0][], 0);
 
-            // Now check for each item
-            for (File file : listed) {
-                if (!file.isDirectory()) {
-                    rval.add(file);
-                    continue;
+            // Each chunk is indexed on its own
+            final int[][] index = cc.range(n).map(new F1<Number, int[]>() {
+                @Override
+                public int[] f(Number x) {
+                    return LineAdapter.index(chunks[x.intValue()]);
                 }
+            }, MapType.TYPE(int[].class)).array(int[].class);
 
-                if (listDirs) rval.add(file);
-
-                final File[] listFiles = file.listFiles();
-                if (listFiles == null) continue;
-                next.addAll(Arrays.asList(listFiles));
+            return new LineAdapter(LINE_CHUNK, chunks, index, length);
+        } catch (FileNotFoundException e) {
+            cc.report(MessageType.EXCEPTION, "File not found " + file);
+        } catch (IOException e) {
+            cc.report(MessageType.EXCEPTION, "Error mapping file " + file);
+        } catch (IllegalArgumentException e) {
+            cc.report(MessageType.EXCEPTION, "Error indexing file " + file + ": " + e.getMessage());
+        } finally {
+            // The mapping stays valid after the file was closed
+            if (raf != null) try {
+                raf.close();
+            } catch (IOException e) {
+                cc.report(MessageType.EXCEPTION, "Error closing file " + file);
             }
         }
 
-        return rval.toArray(new File[0]);
+        return null;
+    }
+
+    /**
+     * Returns the attributes of the given file, using the ones read by {@link #dir} if 
+     * available.
+     * 
+     * @param file
+     * @return The attributes, or <code>null</code> if they could not be read.
+     */
+    public static BasicFileAttributes attributes(File file) {
+        if (file instanceof AttributedFile && ((AttributedFile) file).attributes() != null)
+            return ((AttributedFile) file).attributes();
+
+        try {
+            return java.nio.file.Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     /**
-     * Copies a file .
+     * Lists all elements under the given root. The directory tree is walked in parallel, 
+     * sub directories excluded by the filters are not entered.
+     * 
+     * @param cc
+     * @param root
+     * @param listDirs
+     * @param io If not null the tree is walked on the shared I/O pool.
+     * @param filters
+     * @return A list of elements
+     */
+    public static File[] dir(CommonCore cc, File root, boolean listDirs, IO io, PathFilter... filters) {
+        // In case the given element is no directory, return
+        if (!root.isDirectory()) return null;
+
+        final WalkTask task = new WalkTask(root.toPath(), listDirs, filters);
+
+        // Listing is dominated by file system calls, so with I/O we use more threads than CPUs
+        final ManagerExecution executor = cc.executor();
+        (io == null ? executor.getForkJoinPool() : executor.getIOForkJoinPool()).invoke(task);
+
+        return task.collect();
+    }
+
+    /**
+     * Copies a file or directory. The content of directories is copied in parallel, all
+     * target directories are created before.
      * 
      * @param cc
      * @param from
      * @param to
      * @return .
      */
-    public static File[] copy(CommonCore cc, File from, File to) {
-
-        // Create directory if they don't exist
-        final boolean todir = to.getAbsolutePath().endsWith("/") || to.isDirectory();
+    public static File[] copy(final CommonCore cc, File from, File to) {
         final boolean fromdir = from.getAbsolutePath().endsWith("/") || from.isDirectory();
 
         // If we had a source dir
         if (fromdir) {
-            final File[] elements = dir(from, false);
-            final List<File> files = new ArrayList<File>();
-            for (File file : elements) {
-                final String subname = file.getAbsolutePath().replace(from.getAbsolutePath(), "");
-                files.addAll(Arrays.asList(copy(cc, file, new File(to + "/" + subname))));
+            final File[] elements = dir(cc, from, false, null);
+            if (elements == null) return new File[0];
+
+            // Compute all targets and create their parents, each only once
+            final File[] targets = new File[elements.length];
+            final Set<File> parents = new HashSet<File>();
+            final Integer[] indices = new Integer[elements.length];
+            for (int i = 0; i < elements.length; i++) {
+                final String subname = elements[i].getAbsolutePath().replace(from.getAbsolutePath(), "");
+                targets[i] = new File(to + "/" + subname);
+                indices[i] = Integer.valueOf(i);
+                parents.add(targets[i].getParentFile());
+            }
+
+            for (File parent : parents) {
+                mkdirs(cc, parent);
             }
 
-            return files.toArray(new File[0]);
+            // Now copy all files
+            return new CoreObject<Integer>(cc, indices).map(new F1<Integer, File>() {
+                public File f(Integer x) {
+                    return copyFile(cc, elements[x.intValue()], targets[x.intValue()]);
+                }
+            }, IO.DO).array(File.class);
         }
 
-        // If its a dir, create the dir, if its a file, create its parent
+        // If its a file, create its parent
+        if (!(to.getAbsolutePath().endsWith("/") || to.isDirectory())) mkdirs(cc, to.getParentFile());
+
+        return new File[] { copyFile(cc, from, to) };
+    }
+
+    /**
+     * Copies a single file. The copy is left to the file system, which can clone the file 
+     * or transfer it without passing through our memory.
+     * 
+     * @param cc
+     * @param from
+     * @param to The target file, or the directory to copy into.
+     * @return The file that was written.
+     */
+    private static File copyFile(CommonCore cc, File from, File to) {
+        // If its a dir, create the dir
+        final boolean todir = to.getAbsolutePath().endsWith("/") || to.isDirectory();
         if (todir) to.mkdirs();
-        else {
-        	if(!to.getParentFile().mkdirs())
-        		cc.report(MessageType.EXCEPTION, "Unable to create directory " + to.getParentFile());
-        }
 
         final File realTo = todir ? new File(to.getAbsoluteFile() + "/" + from.getName()) : to;
 
-        // Streams for input and output
-        FileInputStream fis = null;
-        FileOutputStream fos = null;
-
-        // Now copy the actual files. TODO: Also copy from when it is a directory!
         try {
-            fis = new FileInputStream(from);
-            fos = new FileOutputStream(realTo);
+            java.nio.file.Files.copy(from.toPath(), realTo.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
-            byte[] buf = new byte[64 * 1024];
-            int i = 0;
-            while ((i = fis.read(buf)) != -1) {
-                fos.write(buf, 0, i);
-            }
+            // The source might have changed while we copied it
+            final long size = from.length();
+            final long written = realTo.length();
+            if (written < size)
+                cc.report(MessageType.EXCEPTION, "Incomplete copy of file " + from + " to " + realTo + ", " + written + " of " + size + " bytes written");
         } catch (Exception e) {
             cc.report(MessageType.EXCEPTION, "Error copying file " + from + " " + to + " due to a " + e.getMessage());
-        } finally {
-            if (fis != null) try {
-                fis.close();
-            } catch (IOException e) {}
-            if (fos != null) try {
-                fos.close();
-            } catch (IOException e) {}
         }
 
-        return new File[] { realTo };
+        return realTo;
+    }
+
+    /**
+     * Creates the given directory and its parents unless it exists.
+     * 
+     * @param cc
+     * @param directory
+     */
+    private static void mkdirs(CommonCore cc, File directory) {
+        if (directory == null || directory.isDirectory()) return;
+        if (!directory.mkdirs() && !directory.isDirectory())
+            cc.report(MessageType.EXCEPTION, "Unable to create directory " + directory);
     }
 
     /**
@@ -0,0 +1,314 @@
+/*
+ * Hashes.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcores.jre.CommonCore;
+import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.options.MapType;
+import net.jcores.jre.options.MessageType;
+
+/**
+ * Internally used hash functions. Streams are read until their end with pooled buffers. 
+ * Tree hashes split the data into chunks which are hashed in parallel, the result is the 
+ * hash of the concatenated chunk hashes.
+ * 
+ * @author Ralf Biedert
+ */
+public class Hashes {
+    /** Characters for hex encoding */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** The size of the read buffer of each thread */
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /** The maximal number of idle read buffers we keep */
+    private static final int MAX_BUFFERS = 64;
+
+    /** Idle read buffers. Not thread local, as I/O tasks might run in a virtual thread each */
+    private static final Queue<byte[]> buffers = new ConcurrentLinkedQueue<byte[]>();
+
+    /** The number of buffers in the queue (the queue's size() is not constant time) */
+    private static final AtomicInteger idle = new AtomicInteger();
+
+    /**
+     * Encodes the given bytes as lower case hex string.
+     * 
+     * @param bytes The bytes to encode.
+     * @return The hex string.
+     */
+    public static String hex(byte[] bytes) {
+        final char[] rval = new char[2 * bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            rval[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+            rval[2 * i + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(rval);
+    }
+
+    /**
+     * Hashes the given input stream until its end. The stream is not closed.
+     * 
+     * @param in Input stream to use.
+     * @param method Method to use.
+     * @return A string with the hash or <code>null</code> if there was an error.
+     */
+    public static String hash(InputStream in, String method) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(method);
+            final byte[] buffer = acquire();
+
+            try {
+                int read = in.read(buffer);
+                while (read >= 0) {
+                    digest.update(buffer, 0, read);
+                    read = in.read(buffer);
+                }
+            } finally {
+                release(buffer);
+            }
+
+            return hex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns an idle read buffer, or a new one if there is none.
+     * 
+     * @return A read buffer.
+     */
+    private static byte[] acquire() {
+        final byte[] rval = buffers.poll();
+        if (rval == null) return new byte[BUFFER_SIZE];
+
+        idle.decrementAndGet();
+        return rval;
+    }
+
+    /**
+     * Returns the read buffer for later use, unless we already keep enough of them.
+     * 
+     * @param buffer The buffer to return.
+     */
+    private static void release(byte[] buffer) {
+        if (idle.incrementAndGet() > MAX_BUFFERS) {
+            idle.decrementAndGet();
+            return;
+        }
+
+        buffers.offer(buffer);
+    }
+
+    /**
+     * Hashes the given data up to its limit.
+     * 
+     * @param data Data to use.
+     * @param method Method to use.
+     * @return A string with the hash or <code>null</code> if there was an error.
+     */
+    public static String hash(ByteBuffer data, String method) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(method);
+            digest.update(range(data, 0, data.limit()));
+            return hex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Hashes the given file.
+     * 
+     * @param cc The common core.
+     * @param file The file to hash.
+     * @param method Method to use.
+     * @return A string with the hash or <code>null</code> if there was an error.
+     */
+    public static String hash(CommonCore cc, File file, String method) {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            return hash(in, method);
+        } catch (IOException e) {
+            cc.report(MessageType.EXCEPTION, "Error hashing " + file + ". " + e.getMessage());
+        } finally {
+            if (in != null) try {
+                in.close();
+            } catch (IOException e) {
+                cc.report(MessageType.EXCEPTION, "Error closing file " + file);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Computes the tree hash of the given data up to its limit.
+     * 
+     * @param cc The common core.
+     * @param data Data to use.
+     * @param method Method to use.
+     * @param chunk The size of each chunk.
+     * @return A string with the hash or <code>null</code> if there was an error.
+     */
+    public static String treeHash(CommonCore cc, final ByteBuffer data, final String method, final int chunk) {
+        final int length = data.limit();
+        final int n = (length + chunk - 1) / chunk;
+
+        return root(cc.range(n).map(new F1<Number, byte[]>() {
+            @Override
+            public byte[] f(Number x) {
+                final int start = x.intValue() * chunk;
+                return leaf(range(data, start, Math.min(start + chunk, length)), method);
+            }
+        }, MapType.TYPE(byte[].class)).array(byte[].class), n, method);
+    }
+
+    /**
+     * Computes the tree hash of the given file. The chunks are mapped into memory, so files 
+     * larger than the heap can be hashed.
+     * 
+     * @param cc The common core.
+     * @param file The file to hash.
+     * @param method Method to use.
+     * @param chunk The size of each chunk.
+     * @return A string with the hash or <code>null</code> if there was an error.
+     */
+    public static String treeHash(final CommonCore cc, final File file, final String method, final int chunk) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+
+            final FileChannel channel = raf.getChannel();
+            final long length = channel.size();
+            final int n = (int) ((length + chunk - 1) / chunk);
+
+            return root(cc.range(n).map(new F1<Number, byte[]>() {
+                @Override
+                public byte[] f(Number x) {
+                    final long start = (long) x.intValue() * chunk;
+                    try {
+                        return leaf(channel.map(MapMode.READ_ONLY, start, Math.min(chunk, length - start)), method);
+                    } catch (IOException e) {
+                        cc.report(MessageType.EXCEPTION, "Error mapping " + file + ". " + e.getMessage());
+                        return null;
+                    }
+                }
+            }, MapType.TYPE(byte[].class)).array(byte[].class), n, method);
+        } catch (IOException e) {
+            cc.report(MessageType.EXCEPTION, "Error hashing " + file + ". " + e.getMessage());
+        } finally {
+            if (raf != null) try {
+                raf.close();
+            } catch (IOException e) {
+                cc.report(MessageType.EXCEPTION, "Error closing file " + file);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Hashes a single chunk.
+     * 
+     * @param data The chunk.
+     * @param method Method to use.
+     * @return The hash or <code>null</code> if there was an error.
+     */
+    static byte[] leaf(ByteBuffer data, String method) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(method);
+            digest.update(data);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Hashes the concatenated hashes of all chunks.
+     * 
+     * @param leaves The hashes of all chunks.
+     * @param n The number of chunks.
+     * @param method Method to use.
+     * @return A string with the hash or <code>null</code> if a chunk could not be hashed.
+     */
+    static String root(byte[][] leaves, int n, String method) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(method);
+            for (int i = 0; i < n; i++) {
+                if (i >= leaves.length || leaves[i] == null) return null;
+                digest.update(leaves[i]);
+            }
+            return hex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a view of the given range of the buffer.
+     * 
+     * @param data The buffer.
+     * @param start The first index (inclusive).
+     * @param end The last index (exclusive).
+     * @return A new buffer, positioned at the start and limited at the end.
+     */
+    static ByteBuffer range(ByteBuffer data, int start, int end) {
+        final ByteBuffer rval = data.duplicate();
+        ((Buffer) rval).limit(end);
+        ((Buffer) rval).position(start);
+        return rval;
+    }
+}
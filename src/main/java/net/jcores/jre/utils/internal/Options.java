@@ -27,14 +27,26 @@
  */
 package net.jcores.jre.utils.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
+import net.jcores.jre.options.Associative;
+import net.jcores.jre.options.Completion;
+import net.jcores.jre.options.Deadline;
 import net.jcores.jre.options.ID;
+import net.jcores.jre.options.IO;
+import net.jcores.jre.options.Identity;
 import net.jcores.jre.options.InvertSelection;
 import net.jcores.jre.options.KillSwitch;
+import net.jcores.jre.options.MapStatistics;
+import net.jcores.jre.options.Mapped;
 import net.jcores.jre.options.OnFailure;
 import net.jcores.jre.options.Option;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.options.PathFilter;
+import net.jcores.jre.utils.internal.structures.IdentityKey;
 
 /**
  * Convenience class to process options.
@@ -56,9 +68,36 @@ public class Options {
     /** Killswitch */
     KillSwitch killswitch;
     
+    /** Deadline */
+    Deadline deadline;
+    
+    /** Completion */
+    Completion completion;
+    
+    /** I/O mode */
+    IO io;
+    
+    /** Statistics */
+    MapStatistics statistics;
+    
+    /** Parallelism */
+    Parallelism parallelism = Parallelism.AUTO;
+    
+    /** Path filters, might be null */
+    List<PathFilter> pathFilters;
+    
     /** If inverted was given */
     boolean invert = false;
     
+    /** If associative was given */
+    boolean associative = false;
+    
+    /** If identity was given */
+    boolean identity = false;
+    
+    /** If mapped was given */
+    boolean mapped = false;
+    
     /** The specified ID */
     ID id = null;
 
@@ -85,10 +124,47 @@ public class Options {
                     this.invert = !this.invert;
                 }
                 
+                if (option instanceof Associative) {
+                    this.associative = true;
+                }
+                
+                if (option instanceof Identity) {
+                    this.identity = true;
+                }
+                
+                if (option instanceof Mapped) {
+                    this.mapped = true;
+                }
+                
                 if (option instanceof KillSwitch) {
                     this.killswitch = (KillSwitch) option;
                 }
                 
+                if (option instanceof Deadline) {
+                    this.deadline = (Deadline) option;
+                }
+                
+                if (option instanceof Completion) {
+                    this.completion = (Completion) option;
+                }
+                
+                if (option instanceof IO) {
+                    this.io = (IO) option;
+                }
+                
+                if (option instanceof Parallelism) {
+                    this.parallelism = (Parallelism) option;
+                }
+                
+                if (option instanceof PathFilter) {
+                    if (this.pathFilters == null) this.pathFilters = new ArrayList<PathFilter>();
+                    this.pathFilters.add((PathFilter) option);
+                }
+                
+                if (option instanceof MapStatistics) {
+                    this.statistics = (MapStatistics) option;
+                }
+                
                 if (option instanceof ID) {
                     this.id = (ID) option;
                 }
@@ -121,6 +197,49 @@ public class Options {
         return this.invert;
     }
 
+    /**
+     * Returns if the function was declared associative.
+     * 
+     * @since 1.0
+     * @return True if {@link Associative} was given.
+     */
+    public boolean associative() {
+        return this.associative;
+    }
+
+    /**
+     * Returns if data should be mapped instead of copied onto the heap.
+     * 
+     * @since 1.0
+     * @return True if {@link Mapped} was given.
+     */
+    public boolean mapped() {
+        return this.mapped;
+    }
+
+    /**
+     * Returns all given path filters.
+     * 
+     * @since 1.0
+     * @return The {@link PathFilter} options, empty if none were given.
+     */
+    public PathFilter[] pathFilters() {
+        if (this.pathFilters == null) return new PathFilter[0];
+        return this.pathFilters.toArray(new PathFilter[this.pathFilters.size()]);
+    }
+
+    /**
+     * Returns the key under which the given object should be stored in hash based 
+     * structures, depending on whether {@link Identity} was given.
+     * 
+     * @since 1.0
+     * @param object The object to store.
+     * @return The object itself, or a key comparing it by identity.
+     */
+    public Object key(Object object) {
+        return this.identity ? new IdentityKey(object) : object;
+    }
+
     /**
      * Returns the killswitch if there was any.
      * 
@@ -131,6 +250,56 @@ public class Options {
         return this.killswitch;
     }
 
+    /**
+     * Returns the deadline if there was any.
+     * 
+     * @since 1.0
+     * @return The deadline.
+     */
+    public Deadline deadline() {
+        return this.deadline;
+    }
+
+    /**
+     * Returns the completion if there was any.
+     * 
+     * @since 1.0
+     * @return The completion.
+     */
+    public Completion completion() {
+        return this.completion;
+    }
+
+    /**
+     * Returns the I/O mode if there was any.
+     * 
+     * @since 1.0
+     * @return The I/O mode.
+     */
+    public IO io() {
+        return this.io;
+    }
+
+    /**
+     * Returns the requested parallelism.
+     * 
+     * @since 1.0
+     * @return The parallelism, {@link Parallelism#AUTO} if none was given.
+     */
+    public Parallelism parallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Returns the statistics if there were any.
+     * 
+     * @since 1.0
+     * @return The statistics.
+     */
+    public MapStatistics statistics() {
+        return this.statistics;
+    }
+
     /**
      * Returns the ID that was encoded in the options.
      * 
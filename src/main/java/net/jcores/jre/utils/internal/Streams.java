@@ -40,9 +40,8 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -204,50 +203,16 @@ public class Streams {
      * @param method Method to use.
      * @return A string with the hash.
      */
-    @SuppressWarnings("boxing")
     public static String generateHash(InputStream fis, String method) {
-        // Try to generate hash
-        try {
-            final MessageDigest digest = java.security.MessageDigest.getInstance(method);
-
-            // Read Data
-            final byte[] data = new byte[1024 * 1024];
-            int avail = fis.available();
-
-            // Update hash
-            while (avail > 0) {
-                avail = Math.min(avail, data.length);
-
-                // TODO: Mmhm, do we need to consider the return value of this (FindBugs report)
-                fis.read(data, 0, avail);
-
-                digest.update(data, 0, avail);
-                avail = fis.available();
-            }
-
-            final byte[] hash = digest.digest();
-
-            // Assemble hash string
-            final StringBuilder sb = new StringBuilder();
-            for (final byte b : hash) {
-                final String format = String.format("%02x", b);
-                sb.append(format);
-            }
+        final String rval = Hashes.hash(fis, method);
 
+        try {
             fis.close();
-
-            final String hashValue = sb.toString().substring(0, sb.toString().length());
-            return hashValue;
-        } catch (final NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        } catch (final FileNotFoundException e) {
-            // e.printStackTrace();
         } catch (final IOException e) {
             e.printStackTrace();
-        } finally {
-            //
         }
-        return null;
+
+        return rval;
     }
 
     /**
@@ -293,30 +258,22 @@ public class Streams {
      * @return ByteBuffer w. data.
      */
     public static ByteBuffer getByteData(InputStream x) {
-        byte globaldata[] = new byte[1024 * 1024];
-        byte localdata[] = new byte[1024 * 1024];
-
         try {
+            byte data[] = new byte[Math.max(x.available() + 1, 64 * 1024)];
             int total = 0;
-            int lastread = x.read(localdata);
-
-            while (lastread > 0) {
+            int lastread = x.read(data, 0, data.length);
 
-                // Expand array if it does not fit
-                if (total + lastread > globaldata.length) {
-                    final byte newglobal[] = new byte[total + 1024 * 1024];
-                    System.arraycopy(globaldata, 0, newglobal, 0, total);
-                    globaldata = newglobal;
-                }
+            while (lastread >= 0) {
+                total += lastread;
 
-                // Append new data
-                System.arraycopy(globaldata, total, localdata, 0, lastread);
+                // Double the array if it is full
+                if (total == data.length) data = Arrays.copyOf(data, 2 * data.length);
 
-                total += lastread;
-                lastread = x.read(localdata);
+                // Read directly behind the data we have
+                lastread = x.read(data, total, data.length - total);
             }
 
-            return ByteBuffer.wrap(globaldata, 0, total);
+            return ByteBuffer.wrap(data, 0, total);
         } catch (IOException e) {
             //
         }
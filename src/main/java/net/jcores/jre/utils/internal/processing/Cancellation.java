@@ -0,0 +1,168 @@
+/*
+ * Cancellation.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.processing;
+
+import java.util.BitSet;
+
+import net.jcores.jre.options.Completion;
+import net.jcores.jre.options.Deadline;
+import net.jcores.jre.options.KillSwitch;
+import net.jcores.jre.options.Option;
+import net.jcores.jre.utils.internal.Options;
+
+/**
+ * Bundles the {@link KillSwitch}, {@link Deadline} and {@link Completion} of a parallel 
+ * operation, so that its workers can stop early and record their progress. You do not 
+ * need this.
+ * 
+ * @author Ralf Biedert
+ */
+public class Cancellation {
+    /**
+     * Returns the cancellation for the given options.
+     * 
+     * @param options The options passed to the operation.
+     * @return The cancellation, or <code>null</code> if none of the options is relevant.
+     */
+    public static Cancellation of(Option... options) {
+        if (options == null || options.length == 0) return null;
+
+        final Options options$ = Options.$(options);
+        if (options$.killswitch() == null && options$.deadline() == null && options$.completion() == null)
+            return null;
+
+        return new Cancellation(options$.killswitch(), options$.deadline(), options$.completion());
+    }
+
+    /** The kill switch, if any */
+    private final KillSwitch killswitch;
+
+    /** The deadline, if any */
+    private final Deadline deadline;
+
+    /** The completion, if any */
+    private final Completion completion;
+
+    /** If the operation returned without waiting for its workers */
+    private volatile boolean abandoned;
+
+    /**
+     * Creates a new cancellation.
+     * 
+     * @param killswitch The kill switch or <code>null</code>.
+     * @param deadline The deadline or <code>null</code>.
+     * @param completion The completion or <code>null</code>.
+     */
+    private Cancellation(KillSwitch killswitch, Deadline deadline, Completion completion) {
+        this.killswitch = killswitch;
+        this.deadline = deadline;
+
+        // With a deadline we must know which elements made it in time, even if nobody asked
+        this.completion = completion == null && deadline != null ? Completion.NEW() : completion;
+    }
+
+    /**
+     * Returns if the operation should stop.
+     * 
+     * @return True if the kill switch was activated or the deadline passed.
+     */
+    public boolean cancelled() {
+        if (this.killswitch != null && this.killswitch.terminated()) return true;
+        if (this.deadline != null && this.deadline.expired()) return true;
+        return false;
+    }
+
+    /**
+     * Returns the deadline.
+     * 
+     * @return The deadline or <code>null</code>.
+     */
+    public Deadline deadline() {
+        return this.deadline;
+    }
+
+    /**
+     * Returns if the operation returned because its deadline passed or because it was 
+     * abandoned, in which case elements might still be processed in the background.
+     * 
+     * @return True if the deadline expired or the operation was abandoned.
+     */
+    public boolean expired() {
+        return this.abandoned || this.deadline != null && this.deadline.expired();
+    }
+
+    /**
+     * Marks that the operation returns without waiting for its workers, e.g., because the 
+     * calling thread was interrupted. 
+     */
+    public void abandon() {
+        this.abandoned = true;
+    }
+
+    /**
+     * Returns the elements that have been completed when the operation returned. Only 
+     * valid after {@link #finish()} and if there is a deadline or completion.
+     * 
+     * @return The completed elements.
+     */
+    public BitSet completed() {
+        return this.completion == null ? new BitSet() : this.completion.bitmap();
+    }
+
+    /**
+     * Must be called before the operation starts.
+     * 
+     * @param size The number of elements.
+     */
+    public void start(int size) {
+        if (this.completion != null) this.completion.start(size);
+    }
+
+    /**
+     * Handles the given element with the mapper unless we have been cancelled.
+     * 
+     * @param mapper The mapper to use.
+     * @param i The element to handle.
+     * @return False if we have been cancelled and the element was not handled.
+     */
+    public boolean handle(Mapper<?, ?> mapper, int i) {
+        if (cancelled()) return false;
+
+        mapper.handle(i);
+
+        if (this.completion != null) this.completion.done(i);
+        return true;
+    }
+
+    /**
+     * Must be called when the operation returns.
+     */
+    public void finish() {
+        if (this.completion != null) this.completion.finish();
+    }
+}
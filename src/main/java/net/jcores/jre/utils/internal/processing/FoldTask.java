@@ -0,0 +1,112 @@
+/*
+ * FoldTask.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.processing;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Folds a range of a core on a fork/join pool. Small ranges are folded from left to right 
+ * into their first slot, larger ranges are split in half, both halves are folded in parallel 
+ * and the two results are combined afterwards. This results in a combine tree of logarithmic 
+ * depth without any global synchronization between the levels. You do not need this.
+ * 
+ * @author Ralf Biedert
+ */
+public class FoldTask extends RecursiveAction {
+    /** */
+    private static final long serialVersionUID = 4711069137418377281L;
+
+    /** The folder to call */
+    private final Folder<?> folder;
+
+    /** The first index we handle (inclusive), which will also hold our result */
+    private final int from;
+
+    /** The last index we handle (exclusive) */
+    private final int to;
+
+    /** Ranges of this size or smaller are folded directly */
+    private final int grain;
+
+    /** Tells us when to stop, might be null */
+    private final Cancellation cancellation;
+
+    /**
+     * Creates a new task for the given range that stops once cancelled.
+     * 
+     * @param folder The folder to call.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param grain The range size below which we stop splitting.
+     * @param cancellation Tells us when to stop, might be <code>null</code>.
+     */
+    public FoldTask(Folder<?> folder, int from, int to, int grain, Cancellation cancellation) {
+        this.folder = folder;
+        this.from = from;
+        this.to = to;
+        this.grain = Math.max(grain, 2);
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Folds the given range sequentially into its first slot, stopping once cancelled.
+     * 
+     * @param folder The folder to call.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param cancellation Tells us when to stop, might be <code>null</code>.
+     */
+    public static void fold(Folder<?> folder, int from, int to, Cancellation cancellation) {
+        for (int i = from + 1; i < to; i++) {
+            if (cancellation != null && cancellation.cancelled()) return;
+            folder.handle(from, i, from);
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+        // Small enough, fold the elements directly
+        if (this.to - this.from <= this.grain) {
+            fold(this.folder, this.from, this.to, this.cancellation);
+            return;
+        }
+
+        // Otherwise fold both halves in parallel and combine their results
+        final int mid = (this.from + this.to) >>> 1;
+        invokeAll(new FoldTask(this.folder, this.from, mid, this.grain, this.cancellation), 
+                  new FoldTask(this.folder, mid, this.to, this.grain, this.cancellation));
+
+        if (this.cancellation != null && this.cancellation.cancelled()) return;
+        this.folder.handle(this.from, mid, this.from);
+    }
+}
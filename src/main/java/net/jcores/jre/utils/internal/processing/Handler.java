@@ -28,6 +28,7 @@
 package net.jcores.jre.utils.internal.processing;
 
 import java.lang.reflect.Array;
+import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicReference;
 
 import net.jcores.jre.cores.CoreObject;
@@ -46,6 +47,9 @@ public abstract class Handler<I, O> {
     /** The reference to our return array (atomic, since it will be accessed from many threads). */
     protected final AtomicReference<O[]> returnArray = new AtomicReference<O[]>();
 
+    /** The result after we were detached, workers still running don't write into it */
+    private volatile O[] detached;
+
     /**
      * Creates a handler for the given core.
      * 
@@ -82,6 +86,8 @@ public abstract class Handler<I, O> {
      */
     @SuppressWarnings("unchecked")
     public O[] getFinalReturnArray() {
+        if (this.detached != null) return this.detached;
+
         // In case we don't have a return array (which happens when the mapper never
         // returned something sensible), we create a simple object array of our size, so
         // that the core's size stays consistent.
@@ -92,4 +98,22 @@ public abstract class Handler<I, O> {
 
         return rval;
     }
+
+    /**
+     * Detaches the result from the workers. The final return array will afterwards be a copy 
+     * that only contains the given elements, so workers that are still running (e.g., after a 
+     * deadline passed) can't change it anymore.
+     * 
+     * @param completed The elements that have been completed.
+     */
+    @SuppressWarnings("unchecked")
+    public void detach(BitSet completed) {
+        final O[] current = getFinalReturnArray();
+        final O[] rval = (O[]) Array.newInstance(current.getClass().getComponentType(), current.length);
+        for (int i = completed.nextSetBit(0); i >= 0 && i < rval.length; i = completed.nextSetBit(i + 1)) {
+            rval[i] = current[i];
+        }
+
+        this.detached = rval;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+/*
+ * MapTask.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.processing;
+
+import java.util.concurrent.RecursiveAction;
+
+import net.jcores.jre.options.MapStatistics;
+
+/**
+ * Maps a range of a core on a fork/join pool by recursively splitting the range in half
+ * until it is small enough to be handled directly. Idle workers steal the pending halves
+ * of busy workers, so skewed per-element costs do not leave threads waiting. You do not
+ * need this.
+ * 
+ * @author Ralf Biedert
+ */
+public class MapTask extends RecursiveAction {
+    /** */
+    private static final long serialVersionUID = -2911587420870618390L;
+
+    /** The mapper to call for each element */
+    private final Mapper<?, ?> mapper;
+
+    /** The first index we handle (inclusive) */
+    private final int from;
+
+    /** The last index we handle (exclusive) */
+    private final int to;
+
+    /** Ranges of this size or smaller are not split any further */
+    private final int grain;
+
+    /** Tells us when to stop, might be null */
+    private final Cancellation cancellation;
+
+    /** Collects statistics, might be null */
+    private final MapStatistics statistics;
+
+    /**
+     * Creates a new task for the given range that stops once cancelled and reports each 
+     * range it handles directly to the given statistics.
+     * 
+     * @param mapper The mapper to call.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param grain The range size below which we stop splitting.
+     * @param cancellation Tells us when to stop, might be <code>null</code>.
+     * @param statistics Collects statistics, might be <code>null</code>.
+     */
+    public MapTask(Mapper<?, ?> mapper, int from, int to, int grain, Cancellation cancellation,
+                   MapStatistics statistics) {
+        this.mapper = mapper;
+        this.from = from;
+        this.to = to;
+        this.grain = Math.max(grain, 1);
+        this.cancellation = cancellation;
+        this.statistics = statistics;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+        // Small enough, handle the elements directly
+        if (this.to - this.from <= this.grain) {
+            final long start = this.statistics == null ? 0 : System.nanoTime();
+            if (this.cancellation == null) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.mapper.handle(i);
+                }
+            } else {
+                for (int i = this.from; i < this.to; i++) {
+                    if (!this.cancellation.handle(this.mapper, i)) return;
+                }
+            }
+
+            if (this.statistics != null) this.statistics.chunk(this.to - this.from, System.nanoTime() - start);
+            return;
+        }
+
+        // Otherwise split in half and let the pool distribute both parts
+        final int mid = (this.from + this.to) >>> 1;
+        invokeAll(new MapTask(this.mapper, this.from, mid, this.grain, this.cancellation, this.statistics), 
+                  new MapTask(this.mapper, mid, this.to, this.grain, this.cancellation, this.statistics));
+    }
+}
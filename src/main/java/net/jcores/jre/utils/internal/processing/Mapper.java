@@ -104,6 +104,17 @@ public abstract class Mapper<I, O> extends Handler<I, O> {
         }
     }
 
+    /**
+     * Returns the classes of the functions this mapper applies to each element. They are 
+     * used to remember the cost per element across calls. By default this is the mapper's 
+     * own class.
+     * 
+     * @return The classes identifying the mapped functions.
+     */
+    public Class<?>[] functions() {
+        return new Class<?>[] { getClass() };
+    }
+
     /**
      * Overwrite this method and handle element number i.
      * 
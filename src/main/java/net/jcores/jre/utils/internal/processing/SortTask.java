@@ -0,0 +1,134 @@
+/*
+ * SortTask.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.processing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts a range of an array on a fork/join pool. Small ranges are sorted directly, larger 
+ * ranges are split in half, both halves are sorted in parallel and merged afterwards. The 
+ * sort is stable. You do not need this.
+ * 
+ * @author Ralf Biedert
+ * @param <T> The type of the elements.
+ */
+public class SortTask<T> extends RecursiveAction {
+    /** */
+    private static final long serialVersionUID = -2336498711293873005L;
+
+    /** The array to sort */
+    private final T[] array;
+
+    /** Scratch space of the same size used for merging */
+    private final T[] buffer;
+
+    /** The comparator to use, or <code>null</code> for the natural order */
+    private final Comparator<? super T> comparator;
+
+    /** The first index we handle (inclusive) */
+    private final int from;
+
+    /** The last index we handle (exclusive) */
+    private final int to;
+
+    /** Ranges of this size or smaller are sorted directly */
+    private final int grain;
+
+    /**
+     * Creates a new task for the given range.
+     * 
+     * @param array The array to sort.
+     * @param buffer Scratch space, at least as large as <code>to</code>.
+     * @param comparator The comparator, or <code>null</code> for the natural order.
+     * @param from The first index (inclusive).
+     * @param to The last index (exclusive).
+     * @param grain The range size below which we stop splitting.
+     */
+    public SortTask(T[] array, T[] buffer, Comparator<? super T> comparator, int from, int to,
+                    int grain) {
+        this.array = array;
+        this.buffer = buffer;
+        this.comparator = comparator;
+        this.from = from;
+        this.to = to;
+        this.grain = Math.max(grain, 2);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+        // Small enough, sort the elements directly
+        if (this.to - this.from <= this.grain) {
+            Arrays.sort(this.array, this.from, this.to, this.comparator);
+            return;
+        }
+
+        // Otherwise sort both halves in parallel and merge them
+        final int mid = (this.from + this.to) >>> 1;
+        invokeAll(new SortTask<T>(this.array, this.buffer, this.comparator, this.from, mid, this.grain), 
+                  new SortTask<T>(this.array, this.buffer, this.comparator, mid, this.to, this.grain));
+
+        // Both halves might already be in order
+        if (compare(this.array[mid - 1], this.array[mid]) <= 0) return;
+
+        System.arraycopy(this.array, this.from, this.buffer, this.from, mid - this.from);
+
+        // Merge the left half (now in the buffer) and the right half back into the array. On 
+        // equal elements we take the left one to keep the sort stable.
+        int l = this.from, r = mid, d = this.from;
+        while (l < mid && r < this.to) {
+            if (compare(this.buffer[l], this.array[r]) <= 0) {
+                this.array[d++] = this.buffer[l++];
+            } else {
+                this.array[d++] = this.array[r++];
+            }
+        }
+
+        // Remaining elements of the right half are already in place
+        System.arraycopy(this.buffer, l, this.array, d, mid - l);
+    }
+
+    /**
+     * Compares two elements with our comparator or their natural order.
+     * 
+     * @param a The first element.
+     * @param b The second element.
+     * @return The comparison result.
+     */
+    @SuppressWarnings("unchecked")
+    private int compare(T a, T b) {
+        if (this.comparator != null) return this.comparator.compare(a, b);
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
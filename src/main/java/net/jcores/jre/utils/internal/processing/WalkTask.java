@@ -0,0 +1,243 @@
+/*
+ * WalkTask.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.processing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+
+import net.jcores.jre.options.PathFilter;
+import net.jcores.jre.utils.internal.structures.AttributedFile;
+
+/**
+ * Walks a directory on a fork/join pool. Each task lists one directory, reads the attributes
+ * of all entries in the same pass and forks a new task for each sub directory, so idle workers 
+ * steal pending directories from busy ones. The found files keep their attributes (see 
+ * {@link AttributedFile}). Links are followed, but each directory is only entered once, so
+ * links to a parent don't make us walk in circles. The results stay with the tasks until they 
+ * are copied once into an exactly sized array by {@link #collect()}. You do not need this.
+ * 
+ * @author Ralf Biedert
+ */
+public class WalkTask extends RecursiveAction {
+    /** */
+    private static final long serialVersionUID = 2281760823592811364L;
+
+    /** The directory we list */
+    private final Path directory;
+
+    /** If directories should be returned as well */
+    private final boolean listDirs;
+
+    /** The filters to apply */
+    private final PathFilter[] filters;
+
+    /** The keys of all directories entered so far, shared by all tasks of a walk */
+    private final Set<Object> visited;
+
+    /** The entries we found in our directory */
+    private File[] entries;
+
+    /** The tasks for our sub directories */
+    private WalkTask[] children;
+
+    /** The number of entries we and all our children found */
+    private int total;
+
+    /**
+     * Creates a new task for the given directory.
+     * 
+     * @param directory The directory to list.
+     * @param listDirs If directories should be returned as well.
+     * @param filters The filters to apply.
+     */
+    public WalkTask(Path directory, boolean listDirs, PathFilter[] filters) {
+        this(directory, listDirs, filters, Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>()));
+
+        // Don't enter the root again through a link
+        try {
+            final Object key = Files.readAttributes(directory, BasicFileAttributes.class).fileKey();
+            if (key != null) this.visited.add(key);
+        } catch (IOException e) {
+            // We will fail listing it anyway
+        }
+    }
+
+    /**
+     * Creates a new task for a sub directory.
+     * 
+     * @param directory The directory to list.
+     * @param listDirs If directories should be returned as well.
+     * @param filters The filters to apply.
+     * @param visited The keys of all directories entered so far.
+     */
+    private WalkTask(Path directory, boolean listDirs, PathFilter[] filters, Set<Object> visited) {
+        this.directory = directory;
+        this.listDirs = listDirs;
+        this.filters = filters;
+        this.visited = visited;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+        final List<File> found = new ArrayList<File>();
+        final List<WalkTask> subdirs = new ArrayList<WalkTask>();
+
+        DirectoryStream<Path> stream = null;
+        try {
+            stream = Files.newDirectoryStream(this.directory);
+            for (Path path : stream) {
+                final Path absolute = path.toAbsolutePath();
+                if (excluded(absolute)) continue;
+
+                // Links are followed, broken links are returned like files
+                BasicFileAttributes attributes = null;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // Keep it as a file
+                }
+
+                final boolean directory = attributes != null && attributes.isDirectory();
+                if (directory && enter(path, attributes))
+                    subdirs.add(new WalkTask(path, this.listDirs, this.filters, this.visited));
+                if ((!directory || this.listDirs) && included(absolute))
+                    found.add(attributes == null ? path.toFile() : new AttributedFile(path, attributes));
+            }
+        } catch (IOException e) {
+            // Unreadable directories are skipped
+        } catch (DirectoryIteratorException e) {
+            // Same if it fails while being read
+        } finally {
+            if (stream != null) try {
+                stream.close();
+            } catch (IOException e) {
+                // Nothing we could do
+            }
+        }
+
+        this.entries = found.toArray(new File[found.size()]);
+        this.children = subdirs.toArray(new WalkTask[subdirs.size()]);
+
+        invokeAll(this.children);
+
+        this.total = this.entries.length;
+        for (WalkTask child : this.children) {
+            this.total += child.total;
+        }
+    }
+
+    /**
+     * Returns all entries found below our directory, in depth-first order. Must only be called
+     * after the task completed.
+     * 
+     * @return The found entries.
+     */
+    public File[] collect() {
+        final File[] rval = new File[this.total];
+        collect(rval, 0);
+        return rval;
+    }
+
+    /**
+     * Copies our entries and the ones of our children into the given array.
+     * 
+     * @param target The array to fill.
+     * @param offset The first index to write to.
+     * @return The next free index.
+     */
+    private int collect(File[] target, int offset) {
+        System.arraycopy(this.entries, 0, target, offset, this.entries.length);
+
+        int next = offset + this.entries.length;
+        for (WalkTask child : this.children) {
+            next = child.collect(target, next);
+        }
+
+        // Release what we don't need anymore
+        this.entries = null;
+        this.children = null;
+        return next;
+    }
+
+    /**
+     * Returns if we should enter the given directory, which is the case if it was not entered
+     * before (e.g., through a link). If the file system does not tell us which directories are 
+     * the same, links to directories are not entered at all.
+     * 
+     * @param path The directory.
+     * @param attributes Its attributes.
+     * @return True if the directory should be entered.
+     */
+    private boolean enter(Path path, BasicFileAttributes attributes) {
+        final Object key = attributes.fileKey();
+        if (key == null) return !Files.isSymbolicLink(path);
+        return this.visited.add(key);
+    }
+
+    /**
+     * Returns if the given path matches any exclude filter.
+     * 
+     * @param path The absolute path.
+     * @return True if the path should be skipped.
+     */
+    private boolean excluded(Path path) {
+        for (PathFilter filter : this.filters) {
+            if (filter.isExclude() && filter.matches(path)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the given path matches all include filters.
+     * 
+     * @param path The absolute path.
+     * @return True if the path should be returned.
+     */
+    private boolean included(Path path) {
+        for (PathFilter filter : this.filters) {
+            if (!filter.isExclude() && !filter.matches(path)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * AttributedFile.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.utils.internal.structures;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A file that remembers the attributes read when it was found by a directory walk, so 
+ * that sizes and dates don't have to be read again. You do not need this.
+ * 
+ * @author Ralf Biedert
+ * @since 1.0
+ */
+public class AttributedFile extends File {
+    /** */
+    private static final long serialVersionUID = -3262541460836627093L;
+
+    /** The attributes read during the walk, not serialized */
+    private final transient BasicFileAttributes attributes;
+
+    /**
+     * Creates a new file for the given path.
+     * 
+     * @param path The path of the file.
+     * @param attributes The attributes read for the path.
+     */
+    public AttributedFile(Path path, BasicFileAttributes attributes) {
+        super(path.toString());
+        this.attributes = attributes;
+    }
+
+    /**
+     * Returns the attributes read during the walk. They are not updated if the file changes
+     * afterwards.
+     * 
+     * @return The attributes, or <code>null</code> if this file was deserialized.
+     */
+    public BasicFileAttributes attributes() {
+        return this.attributes;
+    }
+}
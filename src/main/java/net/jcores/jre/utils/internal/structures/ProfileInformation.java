@@ -27,15 +27,29 @@
  */
 package net.jcores.jre.utils.internal.structures;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Stores information from the profile run.
  * 
  * @author Ralf Biedert
  */
 public class ProfileInformation {
-    /** The time it takes to <i>fork</i> a thread and wait for it to return. */
-    public long forkTime;
+    /** The time it takes to <i>fork</i> a thread and wait for it to return, measured again from time to time. */
+    public volatile long forkTime;
     
     /** How many CPUs we use when we can */
     public int numCPUs;
+
+    /** How many CPUs are currently granted to running maps */
+    public final AtomicInteger busyCPUs = new AtomicInteger();
+
+    /** How many map worker threads are currently running */
+    public final AtomicInteger workerThreads = new AtomicInteger();
+
+    /** The largest number of map worker threads that ran at the same time */
+    public final AtomicInteger peakWorkerThreads = new AtomicInteger();
+
+    /** How many nested maps ran single threaded since no CPU was idle */
+    public final AtomicInteger inlinedMaps = new AtomicInteger();
 }
@@ -0,0 +1,213 @@
+/*
+ * CoreFileTest.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores;
+
+import static net.jcores.jre.CoreKeeper.$;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import junit.framework.TestCase;
+import net.jcores.jre.options.Hash;
+import net.jcores.jre.options.IO;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.options.PathFilter;
+import net.jcores.jre.options.TreeHash;
+
+/**
+ * Tests {@link CoreFile} on files in a temporary directory.
+ * 
+ * @author Ralf Biedert
+ */
+public class CoreFileTest extends TestCase {
+    /** The directory we work in */
+    private File root;
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+        this.root = File.createTempFile("jcores", "test");
+        this.root.delete();
+        this.root.mkdirs();
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+        $(this.root).delete();
+    }
+
+    /**
+     * Writes a file below our directory.
+     * 
+     * @param name
+     * @param content
+     * @return The file.
+     * @throws IOException
+     */
+    private File write(String name, byte[] content) throws IOException {
+        final File file = new File(this.root, name);
+        file.getParentFile().mkdirs();
+
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+
+        return file;
+    }
+
+    /** Lines are read from the mapped file, without their line breaks. */
+    public void testLines() throws Exception {
+        final File file = write("lines.txt", "a\r\nbb\n\nccc".getBytes("UTF-8"));
+        assertEquals(Arrays.asList("a", "bb", "", "ccc"), $(file).lines().list());
+    }
+
+    /**
+     * Returns some random bytes.
+     * 
+     * @param size
+     * @param seed
+     * @return The bytes.
+     */
+    private static byte[] bytes(int size, int seed) {
+        final byte[] rval = new byte[size];
+        new Random(seed).nextBytes(rval);
+        return rval;
+    }
+
+    /** Hashes are the digests of the files, tree hashes don't depend on the scheduling. */
+    public void testHash() throws Exception {
+        final CoreFile files = $(write("small", bytes(100, 1)), write("medium", bytes(300000, 2)), write("large", bytes(3 * 1024 * 1024 + 17, 3)));
+
+        for (File file : files) {
+            final byte[] digest = MessageDigest.getInstance("MD5").digest(Files.readAllBytes(file.toPath()));
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", Integer.valueOf(b & 0xff)));
+            }
+
+            assertEquals(hex.toString(), $(file).hash().get(0));
+            assertEquals(hex.toString(), $(file).hash(Hash.MD5, IO.DO).get(0));
+        }
+
+        final List<String> tree = files.hash(TreeHash.CHUNK(64 * 1024)).list();
+        assertEquals(tree, files.hash(TreeHash.CHUNK(64 * 1024), Parallelism.SEQUENTIAL).list());
+        assertEquals(tree, files.hash(TreeHash.CHUNK(64 * 1024), Parallelism.PARALLEL(4)).list());
+        assertFalse(tree.get(2).equals(files.hash().get(2)));
+    }
+
+    /**
+     * Returns the paths of the given files relative to our directory, sorted.
+     * 
+     * @param files
+     * @return The paths.
+     */
+    private List<String> relative(CoreFile files) {
+        final List<String> rval = files.string().replace(Pattern.quote(this.root.getAbsolutePath() + File.separator), "").list();
+        Collections.sort(rval);
+        return rval;
+    }
+
+    /** Excluded directories are not returned, includes only return matching files. */
+    public void testPathFilter() throws Exception {
+        for (String name : new String[] { "a.java", "b.txt", "sub/c.java", "sub/deeper/d.bin", ".git/objects/e" }) {
+            write(name, new byte[1]);
+        }
+
+        assertEquals(Arrays.asList(".git/objects/e", "a.java", "b.txt", "sub/c.java", "sub/deeper/d.bin"), relative($(this.root).dir()));
+        assertEquals(Arrays.asList("a.java", "b.txt", "sub/c.java", "sub/deeper/d.bin"), relative($(this.root).dir(PathFilter.EXCLUDE(".*/\\.git"))));
+        assertEquals(Arrays.asList("a.java", "sub/c.java"), relative($(this.root).dir(PathFilter.INCLUDE_GLOB("**/*.java"))));
+        assertEquals(Arrays.asList("a.java"), relative($(this.root).dir(PathFilter.INCLUDE_GLOB("**/*.java"), PathFilter.EXCLUDE(".*/sub"))));
+    }
+
+    /** The attributes read while walking are returned with the files. */
+    public void testAttributes() throws Exception {
+        write("one", new byte[1]);
+        write("sub/three", new byte[3]);
+
+        final CoreFile files = $(this.root).dir();
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(files.get(i).length(), files.attributes().get(i).size());
+            assertEquals(files.get(i).length(), files.filesize().get(i).longValue());
+        }
+    }
+
+    /** A link to an ancestor does not make the walk run forever. */
+    public void testLinkCycle() throws Exception {
+        write("sub/file", new byte[1]);
+
+        try {
+            Files.createSymbolicLink(new File(this.root, "sub/loop").toPath(), this.root.toPath());
+        } catch (Exception e) {
+            // The file system has no links
+            return;
+        }
+
+        assertEquals(Arrays.asList("sub/file"), relative($(this.root).dir()));
+    }
+
+    /** Copies have the content of their sources, existing files are replaced. */
+    public void testCopy() throws Exception {
+        final File source = new File(this.root, "source");
+        write("source/a", bytes(1000, 4));
+        write("source/deeper/b", bytes(200000, 5));
+        write("target/a", bytes(5000, 6));
+
+        final File target = new File(this.root, "target");
+        final CoreFile copied = $(source).copy(target.getAbsolutePath() + "/");
+        assertEquals(Arrays.asList("target/a", "target/deeper/b"), relative(copied));
+
+        for (String name : new String[] { "a", "deeper/b" }) {
+            final byte[] expected = Files.readAllBytes(new File(source, name).toPath());
+            assertTrue(name, Arrays.equals(expected, Files.readAllBytes(new File(target, name).toPath())));
+        }
+
+        final File single = new File(this.root, "single");
+        $(new File(source, "a")).copy(single.getAbsolutePath());
+        assertTrue(Arrays.equals(Files.readAllBytes(new File(source, "a").toPath()), Files.readAllBytes(single.toPath())));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * CoreNumberTest.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores;
+
+import static net.jcores.jre.CoreKeeper.$;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.utils.Statistics;
+
+/**
+ * Tests {@link CoreNumber}.
+ * 
+ * @author Ralf Biedert
+ */
+public class CoreNumberTest extends TestCase {
+    /** Primitive arrays are read without boxing them first. */
+    public void testPrimitiveArrays() {
+        final CoreNumber ints = $(new int[] { 1, 2, 3 });
+        assertEquals(3, ints.size());
+        assertEquals(2, ints.i(1));
+        assertEquals(Integer.valueOf(3), ints.get(2));
+        assertEquals(6.0, ints.sum(), 0);
+
+        final CoreNumber longs = $(new long[] { 1L << 40, 1 });
+        assertEquals((double) (1L << 40) + 1, longs.sum(), 0);
+        assertEquals(Long.valueOf(1L << 40), longs.get(0));
+
+        final CoreNumber doubles = $(new double[] { 0.5, 1.5 });
+        assertEquals(1.0, doubles.average(), 0);
+        assertTrue(Arrays.equals(new double[] { 0.5, 1.5 }, doubles.ds()));
+    }
+
+    /** The single pass statistics match a two pass computation. */
+    public void testStats() {
+        final Random random = new Random(2);
+        final double[] values = new double[100001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e6 + random.nextGaussian() * 1000;
+        }
+
+        double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (double v : values) {
+            sum += v;
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+
+        final double mean = sum / values.length;
+        double squares = 0;
+        for (double v : values) {
+            squares += (v - mean) * (v - mean);
+        }
+
+        final Statistics stats = $(values).stats();
+        assertEquals(values.length, stats.count());
+        assertEquals(sum, stats.sum(), 1e-9 * sum);
+        assertEquals(min, stats.min(), 0);
+        assertEquals(max, stats.max(), 0);
+        assertEquals(mean, stats.mean(), 1e-9 * mean);
+        assertEquals(squares / values.length, stats.variance(), 1e-6 * squares / values.length);
+    }
+
+    /** Empty slots of boxed cores are skipped. */
+    public void testStatsWithNulls() {
+        final Statistics stats = $(Integer.valueOf(4), null, Integer.valueOf(-2), null).stats();
+        assertEquals(2, stats.count());
+        assertEquals(2.0, stats.sum(), 0);
+        assertEquals(-2.0, stats.min(), 0);
+        assertEquals(4.0, stats.max(), 0);
+        assertEquals(9.0, stats.variance(), 1e-12);
+    }
+
+    /** The statistics don't depend on how many threads compute them. */
+    public void testStatsParallelism() {
+        final int[] values = new int[100001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 31) % 1009;
+        }
+
+        final Statistics sequential = $(values).stats(Parallelism.SEQUENTIAL);
+        final Statistics parallel = $(values).stats(Parallelism.PARALLEL(4));
+
+        assertEquals(sequential.count(), parallel.count());
+        assertEquals(sequential.sum(), parallel.sum(), 0);
+        assertEquals(sequential.min(), parallel.min(), 0);
+        assertEquals(sequential.max(), parallel.max(), 0);
+        assertEquals(sequential.variance(), parallel.variance(), 1e-9 * sequential.variance());
+        assertEquals(sequential.sum(), $(values).sum(Parallelism.PARALLEL(4)), 0);
+    }
+}
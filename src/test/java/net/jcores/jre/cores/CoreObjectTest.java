@@ -0,0 +1,284 @@
+/*
+ * CoreObjectTest.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores;
+
+import static net.jcores.jre.CoreKeeper.$;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import net.jcores.jre.interfaces.functions.F1;
+import net.jcores.jre.interfaces.functions.F1Object2Bool;
+import net.jcores.jre.interfaces.functions.F2ReduceObjects;
+import net.jcores.jre.options.Associative;
+import net.jcores.jre.options.Completion;
+import net.jcores.jre.options.Deadline;
+import net.jcores.jre.options.KillSwitch;
+import net.jcores.jre.options.MapStatistics;
+import net.jcores.jre.options.Parallelism;
+import net.jcores.jre.utils.internal.structures.ProfileInformation;
+
+/**
+ * Tests the parallel operations of {@link CoreObject}.
+ * 
+ * @author Ralf Biedert
+ */
+public class CoreObjectTest extends TestCase {
+    /** Adds two numbers */
+    private static final F2ReduceObjects<Long> ADD = new F2ReduceObjects<Long>() {
+        @Override
+        public Long f(Long left, Long right) {
+            return Long.valueOf(left.longValue() + right.longValue());
+        }
+    };
+
+    /** fold() combines every element exactly once and skips empty slots. */
+    public void testFold() {
+        final Long[] numbers = new Long[10000];
+        long expected = 0;
+
+        for (int i = 0; i < numbers.length; i++) {
+            if (i % 10 == 3) continue;
+            numbers[i] = Long.valueOf(i);
+            expected += i;
+        }
+
+        assertEquals(Long.valueOf(expected), new CoreObject<Long>($, numbers).fold(ADD).get(0));
+        assertEquals(Long.valueOf(expected), new CoreObject<Long>($, numbers).fold(ADD, Parallelism.PARALLEL(4)).get(0));
+        assertEquals(Long.valueOf(3), new CoreObject<Long>($, Long.valueOf(1), Long.valueOf(2)).fold(ADD).get(0));
+    }
+
+    /** reduce() with Associative still combines from left to right. */
+    public void testReduceAssociative() {
+        final F2ReduceObjects<String> join = new F2ReduceObjects<String>() {
+            @Override
+            public String f(String left, String right) {
+                return left + "," + right;
+            }
+        };
+
+        final String[] strings = new String[5000];
+        final StringBuilder expected = new StringBuilder("0");
+        strings[0] = "0";
+
+        for (int i = 1; i < strings.length; i++) {
+            if (i % 7 == 3) continue;
+            strings[i] = Integer.toString(i);
+            expected.append(",").append(i);
+        }
+
+        assertEquals(expected.toString(), $(strings).reduce(join).get(0));
+        assertEquals(expected.toString(), $(strings).reduce(join, Associative.DO).get(0));
+        assertEquals(expected.toString(), $(strings).reduce(join, Associative.DO, Parallelism.PARALLEL(4)).get(0));
+        assertEquals("a,b", $(null, "a", null, "b").reduce(join, Associative.DO).get(0));
+    }
+
+    /** count() with a key function groups the elements by their keys. */
+    public void testCount() {
+        final String[] words = new String[3000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = i % 100 == 0 ? null : "abc".substring(0, 1 + i % 3);
+        }
+
+        final F1<String, Integer> length = new F1<String, Integer>() {
+            @Override
+            public Integer f(String x) {
+                return Integer.valueOf(x.length());
+            }
+        };
+
+        for (Parallelism parallelism : new Parallelism[] { Parallelism.SEQUENTIAL, Parallelism.PARALLEL(4) }) {
+            final CoreMap<Integer, Integer> counts = $(words).count(length, parallelism);
+            assertEquals(3, counts.size());
+            assertEquals(Integer.valueOf(990), counts.value(Integer.valueOf(1)));
+            assertEquals(Integer.valueOf(990), counts.value(Integer.valueOf(2)));
+            assertEquals(Integer.valueOf(990), counts.value(Integer.valueOf(3)));
+        }
+
+        assertEquals(Integer.valueOf(990), $(words).count().value("a"));
+    }
+
+    /** Elements that compare equal keep their order, empty slots end up last. */
+    public void testSortStable() {
+        final Random random = new Random(1);
+        final int[][] pairs = new int[50000][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = i % 11 == 0 ? null : new int[] { random.nextInt(100), i };
+        }
+
+        final Comparator<int[]> byKey = new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                return o1[0] - o2[0];
+            }
+        };
+
+        // The core is only split if we have several CPUs
+        final ProfileInformation profile = $.profileInformation();
+        final int numCPUs = profile.numCPUs;
+        profile.numCPUs = 4;
+
+        final List<int[]> sorted;
+        try {
+            sorted = new CoreObject<int[]>($, pairs).sort(byKey).list();
+        } finally {
+            profile.numCPUs = numCPUs;
+        }
+
+        final int nonnull = pairs.length - (pairs.length + 10) / 11;
+        for (int i = 1; i < nonnull; i++) {
+            final int[] a = sorted.get(i - 1);
+            final int[] b = sorted.get(i);
+            assertTrue("at " + i, a[0] < b[0] || a[0] == b[0] && a[1] < b[1]);
+        }
+
+        for (int i = nonnull; i < pairs.length; i++) {
+            assertNull(sorted.get(i));
+        }
+    }
+
+    /** Sorting by the natural order moves empty slots to the end. */
+    public void testSortNulls() {
+        assertEquals(Arrays.asList("a", "b", "c", null, null), $(null, "c", "a", null, "b").sort().list());
+    }
+
+    /** After a deadline the result does not change anymore and matches the completion. */
+    public void testDeadline() throws InterruptedException {
+        final Integer[] numbers = new Integer[200];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = Integer.valueOf(i);
+        }
+
+        final Completion completion = Completion.NEW();
+        final CoreObject<Integer> result = new CoreObject<Integer>($, numbers).map(new F1<Integer, Integer>() {
+            @Override
+            public Integer f(Integer x) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    //
+                }
+                return x;
+            }
+        }, Deadline.IN(100), completion, Parallelism.PARALLEL(2));
+
+        final List<Integer> before = result.list();
+        Thread.sleep(300);
+
+        assertTrue(result.compact().size() < numbers.length);
+        assertEquals(before, result.list());
+        assertEquals(completion.count(), result.compact().size());
+    }
+
+    /** A kill switch also stops the fold of only two elements. */
+    public void testKillSwitchFold() {
+        final F2ReduceObjects<String> join = new F2ReduceObjects<String>() {
+            @Override
+            public String f(String left, String right) {
+                return left + right;
+            }
+        };
+
+        final KillSwitch killswitch = KillSwitch.NEW();
+        killswitch.terminate();
+
+        assertEquals("ab", $("a", "b").fold(join).get(0));
+        assertEquals("a", $("a", "b").fold(join, killswitch).get(0));
+    }
+
+    /** The statistics tell how a map was run. */
+    public void testStatistics() {
+        final MapStatistics statistics = MapStatistics.NEW();
+        final CoreObject<String> strings = $(new String[1000]).map(new F1<String, String>() {
+            @Override
+            public String f(String x) {
+                return "x";
+            }
+        });
+
+        strings.map(new F1<String, Integer>() {
+            @Override
+            public Integer f(String x) {
+                return Integer.valueOf(x.length());
+            }
+        }, statistics, Parallelism.PARALLEL(4));
+
+        assertEquals(MapStatistics.Mode.BARRIER, statistics.mode());
+        assertEquals(4, statistics.threads());
+        assertEquals(1000, statistics.elements());
+        assertTrue(statistics.imbalance() >= 1.0);
+    }
+
+    /** With Parallelism.SEQUENTIAL the map stays on the calling thread. */
+    public void testParallelism() {
+        final Integer[] numbers = new Integer[1000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = Integer.valueOf(i);
+        }
+
+        final Thread caller = Thread.currentThread();
+        final MapStatistics statistics = MapStatistics.NEW();
+        final List<Boolean> here = new CoreObject<Integer>($, numbers).map(new F1<Integer, Boolean>() {
+            @Override
+            public Boolean f(Integer x) {
+                return Boolean.valueOf(Thread.currentThread() == caller);
+            }
+        }, Parallelism.SEQUENTIAL, statistics).list();
+
+        assertEquals(MapStatistics.Mode.SEQUENTIAL, statistics.mode());
+        assertFalse(here.contains(Boolean.FALSE));
+    }
+
+    /** filter() keeps the matching elements in their order. */
+    public void testFilter() {
+        final F1Object2Bool<Integer> even = new F1Object2Bool<Integer>() {
+            @Override
+            public boolean f(Integer x) {
+                return x.intValue() % 2 == 0;
+            }
+        };
+
+        for (int size : new int[] { 0, 1, 3, 100001 }) {
+            final Integer[] numbers = new Integer[size];
+            final List<Integer> expected = new ArrayList<Integer>();
+
+            for (int i = 0; i < size; i++) {
+                if (i % 5 == 4) continue;
+                numbers[i] = Integer.valueOf(i);
+                if (i % 2 == 0) expected.add(numbers[i]);
+            }
+
+            assertEquals(expected, new CoreObject<Integer>($, numbers).filter(even).list());
+            assertEquals(expected, new CoreObject<Integer>($, numbers).filter(even, Parallelism.PARALLEL(4)).list());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * LineAdapterTest.java
+ * 
+ * Copyright (c) 2011, Ralf Biedert All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer. Redistributions in binary form must reproduce the
+ * above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * 
+ * Neither the name of the author nor the names of its contributors may be used to endorse or
+ * promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR
+ * TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * 
+ */
+package net.jcores.jre.cores.adapter;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the {@link LineAdapter} with tiny chunks, so that lines and line breaks cross 
+ * chunk boundaries.
+ * 
+ * @author Ralf Biedert
+ */
+public class LineAdapterTest extends TestCase {
+    /**
+     * Creates an adapter for the given text, split into chunks of the given size.
+     * 
+     * @param text
+     * @param chunkSize
+     * @return The adapter.
+     * @throws UnsupportedEncodingException
+     */
+    private static LineAdapter adapter(String text, int chunkSize) throws UnsupportedEncodingException {
+        final byte[] bytes = text.getBytes("UTF-8");
+        final int n = (bytes.length + chunkSize - 1) / chunkSize;
+        final ByteBuffer[] chunks = new ByteBuffer[n];
+        final int[][] index = new int[n][];
+
+        for (int c = 0; c < n; c++) {
+            chunks[c] = ByteBuffer.wrap(bytes, c * chunkSize, Math.min(chunkSize, bytes.length - c * chunkSize)).slice();
+            index[c] = LineAdapter.index(chunks[c]);
+        }
+
+        return new LineAdapter(chunkSize, chunks, index, bytes.length);
+    }
+
+    /**
+     * Checks the adapter against the lines of the text, read in order and at random.
+     * 
+     * @param text
+     * @param chunkSize
+     * @throws UnsupportedEncodingException
+     */
+    private static void check(String text, int chunkSize) throws UnsupportedEncodingException {
+        final List<String> expected = new ArrayList<String>();
+        final String[] parts = text.split("\n", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i == parts.length - 1 && parts[i].length() == 0) break;
+            expected.add(parts[i].endsWith("\r") ? parts[i].substring(0, parts[i].length() - 1) : parts[i]);
+        }
+
+        final LineAdapter adapter = adapter(text, chunkSize);
+        assertEquals(expected, adapter.unsafelist());
+
+        final Random random = new Random(chunkSize);
+        for (int i = 0; i < expected.size(); i++) {
+            final int line = random.nextInt(expected.size());
+            assertEquals("line " + line, expected.get(line), adapter.get(line));
+        }
+    }
+
+    /** Lines and CRLF pairs that are split between chunks. */
+    public void testChunkBoundaries() throws Exception {
+        final String text = "first\r\nsecond\n\nfourth\r\n\r\nsixth line is longer than a chunk\nlast";
+        for (int chunkSize = 1; chunkSize <= text.length() + 1; chunkSize++) {
+            check(text, chunkSize);
+            check(text + "\n", chunkSize);
+            check(text + "\r\n", chunkSize);
+        }
+    }
+
+    /** Many lines per chunk, so that the sparse index has to be scanned. */
+    public void testManyLines() throws Exception {
+        final Random random = new Random(3);
+        final StringBuilder text = new StringBuilder();
+
+        for (int l = 0; l < 5000; l++) {
+            final int length = random.nextInt(10);
+            for (int k = 0; k < length; k++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+        }
+
+        check(text.toString(), 1000);
+        check(text.toString(), 1 << 20);
+    }
+
+    /** Multi byte characters are decoded even if they are split between chunks. */
+    public void testUnicode() throws Exception {
+        for (int chunkSize = 1; chunkSize < 20; chunkSize++) {
+            check("gr\u00fc\u00dfe\n\u65e5\u672c\u8a9e\r\n\u00e4", chunkSize);
+        }
+    }
+
+    /** Empty files have no lines, a single break is one empty line. */
+    public void testEmpty() throws Exception {
+        assertEquals(0, adapter("", 16).size());
+        assertEquals(1, adapter("\n", 16).size());
+        assertEquals("", adapter("\n", 16).get(0));
+    }
+}